@@ -10,6 +10,7 @@ import io.github.paexception.engelsburg.api.endpoint.dto.TeacherDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetClassesResponseDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetTeachersResponseDTO;
 import io.github.paexception.engelsburg.api.service.scheduled.SubstituteUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.LoggingComponent;
 import io.github.paexception.engelsburg.api.util.Result;
@@ -58,6 +59,7 @@ public class InformationController implements LoggingComponent {
 	private static final Logger LOGGER = LoggerFactory.getLogger(InformationController.class);
 	private static String[] currentClasses;
 	private final TeacherRepository teacherRepository;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Get a teacher by its abbreviation.
@@ -233,6 +235,7 @@ public class InformationController implements LoggingComponent {
 
 		//Add all teachers
 		this.teacherRepository.saveAll(teachers);
+		this.responseCache.invalidate(NAME_KEY);
 		LOGGER.info("[Information] Added " + teachers.size() + " teachers");
 	}
 
@@ -247,6 +250,15 @@ public class InformationController implements LoggingComponent {
 		return Result.of(new GetClassesResponseDTO(currentClasses));
 	}
 
+	/**
+	 * Get the current classes given by the navbar of the substitutes.
+	 *
+	 * @return current classes, empty if not fetched yet
+	 */
+	public List<String> getCurrentClassNames() {
+		return currentClasses != null ? List.of(currentClasses) : List.of();
+	}
+
 	/**
 	 * Set current classes.
 	 * Only {@link SubstituteUpdateService} is supposed to call
@@ -256,6 +268,7 @@ public class InformationController implements LoggingComponent {
 	 */
 	public void setCurrentClasses(String[] classes) {
 		currentClasses = classes;
+		this.responseCache.invalidate(NAME_KEY);
 	}
 
 	/**
@@ -4,24 +4,48 @@
 
 package io.github.paexception.engelsburg.api.controller.reserved;
 
+import io.github.paexception.engelsburg.api.database.model.SubstituteChangeModel;
+import io.github.paexception.engelsburg.api.database.model.SubstituteClassModel;
 import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
+import io.github.paexception.engelsburg.api.database.repository.SubstituteChangeRepository;
+import io.github.paexception.engelsburg.api.database.repository.SubstituteClassRepository;
 import io.github.paexception.engelsburg.api.database.repository.SubstituteRepository;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteChangeDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.response.GetSubstituteChangesResponseDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetSubstitutesResponseDTO;
 import io.github.paexception.engelsburg.api.service.notification.NotificationService;
 import io.github.paexception.engelsburg.api.service.scheduled.SubstituteUpdateService;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDiff;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteEventStream;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteIndex;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
+import io.github.paexception.engelsburg.api.util.Environment;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static io.github.paexception.engelsburg.api.util.Constants.Substitute.NAME_KEY;
 
@@ -35,7 +59,13 @@ public class SubstituteController {
 	private static long timestamp = 0;
 
 	private final SubstituteRepository substituteRepository;
+	private final SubstituteClassRepository substituteClassRepository;
+	private final SubstituteChangeRepository substituteChangeRepository;
 	private final NotificationService notificationService;
+	private final InformationController informationController;
+	private final SubstituteEventStream substituteEventStream;
+	private final ResponseCache responseCache;
+	private final AtomicReference<SubstituteIndex> index = new AtomicReference<>();
 
 	/**
 	 * Create a {@link SubstituteModel} out of a {@link SubstituteDTO}.
@@ -59,8 +89,57 @@ public class SubstituteController {
 		);
 	}
 
+	/**
+	 * Split the classes of substitutes into {@link SubstituteClassModel}s.
+	 *
+	 * @param substitutes to split, must be saved
+	 * @return classes of substitutes
+	 */
+	private static List<SubstituteClassModel> splitClasses(List<SubstituteModel> substitutes) {
+		List<SubstituteClassModel> classes = new ArrayList<>();
+		for (SubstituteModel substitute : substitutes) {
+			if (substitute.getClassName() == null) continue;
+
+			for (String className : new HashSet<>(SubstituteModel.splitClasses(substitute.getClassName()))) {
+				if (!className.isBlank()) classes.add(new SubstituteClassModel(substitute.getSubstituteId(), className));
+			}
+		}
+
+		return classes;
+	}
+
+	/**
+	 * Log changes of substitutes.
+	 *
+	 * @param changes     to add the changes to
+	 * @param substitutes changed, must be saved
+	 * @param date        of substitutes
+	 * @param type        of change
+	 */
+	private static void logChanges(List<SubstituteChangeModel> changes, List<SubstituteModel> substitutes, Date date,
+			SubstituteChangeModel.Type type) {
+		for (SubstituteModel substitute : substitutes)
+			changes.add(new SubstituteChangeModel(substitute.getSubstituteId(), date, type));
+	}
+
+	/**
+	 * Split a comma separated filter.
+	 *
+	 * @param filter to split, might be null
+	 * @return values of filter, empty if no filter is given
+	 */
+	private static Set<String> filter(String filter) {
+		return filter == null || filter.isBlank() ? new HashSet<>() : new HashSet<>(Arrays.asList(filter.split(",")));
+	}
+
+	private static List<Long> ids(List<SubstituteModel> substitutes) {
+		return substitutes.stream().map(SubstituteModel::getSubstituteId).collect(Collectors.toList());
+	}
+
 	/**
 	 * Update substitutes.
+	 * Only the difference to the stored substitutes of the day is written, deletes in a single statement and updates
+	 * in JDBC batches.
 	 * Only {@link SubstituteUpdateService} is supposed to call
 	 * this function!
 	 *
@@ -71,28 +150,63 @@ public class SubstituteController {
 	public void updateSubstitutes(List<SubstituteDTO> fetchedDTOs, Date date) {
 		timestamp = System.currentTimeMillis();
 
-		List<SubstituteDTO> current = new ArrayList<>();
-		for (SubstituteModel substitute : this.substituteRepository.findAllByDate(date)) {
-			current.add(substitute.toResponseDTO());
-		}
-		this.substituteRepository.deleteAllByDate(date);
-
 		//Check if substitutes have been updated or newly created
-		List<SubstituteDTO> updated = new ArrayList<>(), created = new ArrayList<>();
-		List<SubstituteModel> toSave = new ArrayList<>();
-		for (SubstituteDTO dto : fetchedDTOs) {
-			if (current.stream().anyMatch(substituteDTO -> substituteDTO.sameBase(dto))) {
-				if (!current.contains(dto)) updated.add(dto);
-			} else created.add(dto);
-
-			toSave.add(createSubstitute(dto));
+		SubstituteDiff diff = SubstituteDiff.of(this.substituteRepository.findAllByDate(date), fetchedDTOs,
+				SubstituteController::createSubstitute);
+		//Log changes before deleting, every change gets a new version for delta sync
+		List<SubstituteChangeModel> changes = new ArrayList<>();
+		logChanges(changes, diff.getDeletes(), date, SubstituteChangeModel.Type.DELETE);
+
+		if (!diff.getDeletes().isEmpty()) {
+			this.substituteClassRepository.deleteAllBySubstituteIdIn(ids(diff.getDeletes()));
+			this.substituteRepository.deleteInBatch(diff.getDeletes());
 		}
+		this.substituteRepository.saveAll(diff.getUpdates());
+		this.substituteRepository.saveAll(diff.getInserts());
+
+		//Split classes of inserted and updated substitutes, substitutes stored before the split classes are added too
+		if (!diff.getUpdates().isEmpty())
+			this.substituteClassRepository.deleteAllBySubstituteIdIn(ids(diff.getUpdates()));
+		this.substituteClassRepository.saveAll(splitClasses(this.substituteRepository.findAllByDateAndClassesMissing(date)));
 
-		this.substituteRepository.saveAll(toSave);
+		logChanges(changes, diff.getUpdates(), date, SubstituteChangeModel.Type.UPDATE);
+		logChanges(changes, diff.getInserts(), date, SubstituteChangeModel.Type.CREATE);
+		this.substituteChangeRepository.saveAll(changes);
+		this.publishAfterCommit(changes, diff);
 
 		//Send notifications if lists are not empty
-		if (!updated.isEmpty()) this.notificationService.sendSubstituteNotifications(updated, false);
-		if (!created.isEmpty()) this.notificationService.sendSubstituteNotifications(created, true);
+		if (!diff.getUpdated().isEmpty()) this.notificationService.sendSubstituteNotifications(diff.getUpdated(), false);
+		if (!diff.getCreated().isEmpty()) this.notificationService.sendSubstituteNotifications(diff.getCreated(), true);
+	}
+
+	/**
+	 * Publish logged changes to the event stream once they are committed.
+	 *
+	 * @param changes logged, must be saved
+	 * @param diff    the changes were logged of
+	 */
+	private void publishAfterCommit(List<SubstituteChangeModel> changes, SubstituteDiff diff) {
+		if (changes.isEmpty()) return;
+
+		Map<Long, SubstituteModel> changed = new HashMap<>();
+		for (SubstituteModel substitute : diff.getUpdates()) changed.put(substitute.getSubstituteId(), substitute);
+		for (SubstituteModel substitute : diff.getInserts()) changed.put(substitute.getSubstituteId(), substitute);
+
+		List<SubstituteChangeDTO> dtos = new ArrayList<>(changes.size());
+		for (SubstituteChangeModel change : changes) {
+			SubstituteModel substitute = change.getType() != SubstituteChangeModel.Type.DELETE
+					? changed.get(change.getSubstituteId())
+					: null;
+			dtos.add(new SubstituteChangeDTO(change.getVersion(), change.getType(), change.getSubstituteId(),
+					substitute != null ? substitute.toResponseDTO() : null));
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				SubstituteController.this.substituteEventStream.publish(dtos);
+			}
+		});
 	}
 
 	/**
@@ -104,40 +218,146 @@ public class SubstituteController {
 	 * @return substitutes with specific filters
 	 */
 	public Result<GetSubstitutesResponseDTO> getSubstitutes(String classNameFilter, String teacherFilter) {
-		Set<String> classes = classNameFilter == null || classNameFilter.isBlank()
-				? new HashSet<>()
-				: new HashSet<>(Arrays.asList(classNameFilter.split(",")));
-		Set<String> teachers = teacherFilter == null || teacherFilter.isBlank()
-				? new HashSet<>()
-				: new HashSet<>(Arrays.asList(teacherFilter.split(",")));
-		final Date date = new Date(System.currentTimeMillis());
-
-		final List<SubstituteModel> substitutes = new ArrayList<>();
-		if (classes.isEmpty() && teachers.isEmpty()) {
-			substitutes.addAll(this.substituteRepository.findAllByDateGreaterThanEqual(date));
-		} else {
-			for (SubstituteModel substitute : this.substituteRepository.findAllByDateGreaterThanEqual(date)) {
-				List<String> classNames = substitute.getClassName() == null
-						? new ArrayList<>()
-						: SubstituteModel.splitClasses(substitute.getClassName());
-
-				String teacher = substitute.getTeacher();
-				String substituteTeacher = substitute.getSubstituteTeacher();
-
-				if (classNames.isEmpty()) substitutes.add(substitute);
-				else if (classes.stream().anyMatch(classNames::contains)) substitutes.add(substitute);
-				else if (teacher != null && (teachers.contains(teacher) || teachers.contains(substituteTeacher))) {
-					substitutes.add(substitute);
-				}
-			}
-		}
+		Set<String> classes = filter(classNameFilter), teachers = filter(teacherFilter);
+
+		//Filter by the read index, the database is only queried if filtering in SQL is configured
+		List<SubstituteDTO> dtos = Environment.SUBSTITUTE_SQL_FILTER
+				? this.substituteRepository.findAllByDateGreaterThanEqualAndFilters(new Date(System.currentTimeMillis()),
+				classes, teachers).stream().map(SubstituteModel::toResponseDTO).collect(Collectors.toList())
+				: this.index().find(classes, teachers, LocalDate.now());
 
 		//If no substitutes available return error
-		if (substitutes.isEmpty()) return Result.of(Error.NOT_FOUND, NAME_KEY);
+		if (dtos.isEmpty()) return Result.of(Error.NOT_FOUND, NAME_KEY);
 
-		//Map substitutes to response dtos and return them
-		List<SubstituteDTO> dtos = new ArrayList<>();
-		for (SubstituteModel substitute : substitutes) dtos.add(substitute.toResponseDTO());
 		return Result.of(new GetSubstitutesResponseDTO(dtos, timestamp));
 	}
+
+	/**
+	 * Get the changes of substitutes since a version.
+	 * Only the latest change of every substitute is returned, changes of past days are not.
+	 * Without version all current substitutes are returned as created.
+	 *
+	 * @param since version of the last known change, 0 if none
+	 * @return changes and the version to query next
+	 */
+	public Result<GetSubstituteChangesResponseDTO> getChanges(long since) {
+		Date today = new Date(System.currentTimeMillis());
+		if (since <= 0) {
+			//Version is queried first, substitutes changed in between are returned again by the next query
+			long version = this.substituteChangeRepository.findTopByOrderByVersionDesc()
+					.map(SubstituteChangeModel::getVersion).orElse(0L);
+			List<SubstituteChangeDTO> changes = new ArrayList<>();
+			for (SubstituteModel substitute : this.substituteRepository.findAllByDateGreaterThanEqual(today)) {
+				changes.add(new SubstituteChangeDTO(version, SubstituteChangeModel.Type.CREATE,
+						substitute.getSubstituteId(), substitute.toResponseDTO()));
+			}
+
+			return Result.of(new GetSubstituteChangesResponseDTO(changes, version));
+		}
+
+		//Keep the latest change of every substitute in order of versions
+		Map<Long, SubstituteChangeModel> latest = new LinkedHashMap<>();
+		for (SubstituteChangeModel change : this.substituteChangeRepository
+				.findAllByVersionGreaterThanAndDateGreaterThanEqualOrderByVersionAsc(since, today)) {
+			latest.remove(change.getSubstituteId());
+			latest.put(change.getSubstituteId(), change);
+		}
+		if (latest.isEmpty()) return Result.of(new GetSubstituteChangesResponseDTO(List.of(), since));
+
+		Map<Long, SubstituteModel> substitutes = this.substituteRepository.findAllBySubstituteIdIn(latest.keySet())
+				.stream().collect(Collectors.toMap(SubstituteModel::getSubstituteId, Function.identity()));
+		List<SubstituteChangeDTO> changes = new ArrayList<>(latest.size());
+		long version = since;
+		for (SubstituteChangeModel change : latest.values()) {
+			SubstituteModel substitute = substitutes.get(change.getSubstituteId());
+			changes.add(substitute == null
+					? new SubstituteChangeDTO(change.getVersion(), SubstituteChangeModel.Type.DELETE,
+					change.getSubstituteId(), null)
+					: new SubstituteChangeDTO(change.getVersion(), change.getType(), change.getSubstituteId(),
+					substitute.toResponseDTO()));
+			version = change.getVersion();
+		}
+
+		return Result.of(new GetSubstituteChangesResponseDTO(changes, version));
+	}
+
+	/**
+	 * Stream changes of substitutes by specific filter.
+	 * All parameters are optional.
+	 *
+	 * @param classNameFilter (optional) filter by className
+	 * @param teacherFilter   (optional) filter by teacher
+	 * @param lastEventId     (optional) version of the last received change to replay missed changes
+	 * @return emitter of changes
+	 */
+	public SseEmitter streamSubstitutes(String classNameFilter, String teacherFilter, Long lastEventId) {
+		return this.substituteEventStream.subscribe(filter(classNameFilter), filter(teacherFilter),
+				lastEventId != null && lastEventId > 0 ? lastEventId : 0,
+				since -> this.getChanges(since).getResult().getChanges());
+	}
+
+	/**
+	 * Forget the changes of past days, clients drop past substitutes anyway.
+	 * Only {@link SubstituteUpdateService} is supposed to call
+	 * this function!
+	 */
+	@Transactional
+	public void forgetPastChanges() {
+		this.substituteChangeRepository.deleteAllByDateBefore(new Date(System.currentTimeMillis()));
+	}
+
+	/**
+	 * Rebuild the read index of future substitutes and publish it to all readers at once.
+	 * Only {@link SubstituteUpdateService} is supposed to call
+	 * this function after substitutes were updated!
+	 */
+	public synchronized void rebuildIndex() {
+		Date date = new Date(System.currentTimeMillis());
+
+		this.index.set(SubstituteIndex.of(this.substituteRepository.findAllByDateGreaterThanEqual(date),
+				this.informationController.getCurrentClassNames()));
+		this.responseCache.invalidate(NAME_KEY);
+	}
+
+	/**
+	 * Split the classes of all future substitutes which were stored before their classes were split.
+	 * Their days might not change again, so they would be missing from results filtered in SQL.
+	 * Done once at startup, afterwards classes are split by {@link #updateSubstitutes(List, Date)}.
+	 */
+	@Transactional
+	@EventListener(ApplicationReadyEvent.class)
+	public void splitMissingClasses() {
+		List<SubstituteClassModel> classes = splitClasses(this.substituteRepository
+				.findAllByDateGreaterThanEqualAndClassesMissing(new Date(System.currentTimeMillis())));
+		if (classes.isEmpty()) return;
+
+		this.substituteClassRepository.saveAll(classes);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				SubstituteController.this.responseCache.invalidate(NAME_KEY);
+			}
+		});
+	}
+
+	/**
+	 * Rebuild the read index at the start of a day, so substitutes of the past day are not cached anymore.
+	 */
+	@Scheduled(cron = "0 0 0 * * *")
+	public void startDay() {
+		this.rebuildIndex();
+	}
+
+	/**
+	 * Get the current read index, it is only built here before the first update.
+	 *
+	 * @return read index
+	 */
+	private SubstituteIndex index() {
+		SubstituteIndex index = this.index.get();
+		if (index != null) return index;
+
+		this.rebuildIndex();
+		return this.index.get();
+	}
 }
@@ -6,19 +6,31 @@ package io.github.paexception.engelsburg.api.controller.shared;
 
 import io.github.paexception.engelsburg.api.database.model.ArticleModel;
 import io.github.paexception.engelsburg.api.database.projections.ArticleIdAndContentHashProjection;
+import io.github.paexception.engelsburg.api.database.projections.ArticleSummaryProjection;
 import io.github.paexception.engelsburg.api.database.repository.ArticleRepository;
 import io.github.paexception.engelsburg.api.endpoint.dto.ArticleDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.ArticleSummaryDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.request.ArticlesUpdatedRequestDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.ArticlesUpdatedResponseDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.response.GetArticleSummariesResponseDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetArticlesResponseDTO;
 import io.github.paexception.engelsburg.api.spring.paging.AbstractPageable;
+import io.github.paexception.engelsburg.api.spring.paging.Cursor;
 import io.github.paexception.engelsburg.api.spring.paging.Paging;
+import io.github.paexception.engelsburg.api.spring.paging.Positioned;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import static io.github.paexception.engelsburg.api.util.Constants.Article.NAME_KEY;
 
 /**
@@ -28,6 +40,14 @@ import static io.github.paexception.engelsburg.api.util.Constants.Article.NAME_K
 public class ArticleController extends AbstractPageable {
 
 	private final ArticleRepository articleRepository;
+	/**
+	 * Content hashes by article id and the other way round, loaded once and kept current by
+	 * {@link #createOrUpdateArticle(ArticleDTO)}, which is the only way articles are changed.
+	 * Articles with the same content share a hash, so a hash is known as long as any article has it.
+	 */
+	private final Map<Integer, String> contentHashes = new ConcurrentHashMap<>();
+	private final Map<String, Set<Integer>> articleIdsByHash = new ConcurrentHashMap<>();
+	private volatile boolean contentHashesLoaded;
 
 	public ArticleController(ArticleRepository articleRepository) {
 		//Set paging information
@@ -57,6 +77,38 @@ public class ArticleController extends AbstractPageable {
 					dto.getBlurHash()
 			));
 		}
+		this.indexContentHash(dto.getArticleId(), dto.getContentHash());
+	}
+
+	/**
+	 * Set the content hash of an article in memory.
+	 *
+	 * @param articleId of article
+	 * @param hash      current content hash
+	 */
+	private synchronized void indexContentHash(int articleId, String hash) {
+		String previous = this.contentHashes.put(articleId, hash);
+		if (previous != null && !previous.equals(hash)) {
+			Set<Integer> articleIds = this.articleIdsByHash.get(previous);
+			articleIds.remove(articleId);
+			if (articleIds.isEmpty()) this.articleIdsByHash.remove(previous);
+		}
+		this.articleIdsByHash.computeIfAbsent(hash, h -> ConcurrentHashMap.newKeySet()).add(articleId);
+	}
+
+	/**
+	 * Load the content hashes of all articles into memory, only done before the first check.
+	 */
+	private void loadContentHashes() {
+		if (this.contentHashesLoaded) return;
+
+		synchronized (this) {
+			if (this.contentHashesLoaded) return;
+
+			this.articleRepository.findAllIdsAndContentHashes()
+					.forEach(article -> this.indexContentHash(article.getArticleId(), article.getContentHash()));
+			this.contentHashesLoaded = true;
+		}
 	}
 
 	/**
@@ -76,31 +128,163 @@ public class ArticleController extends AbstractPageable {
 	 * @return found articles
 	 */
 	public Result<GetArticlesResponseDTO> getArticlesAfter(long date, Paging paging) {
-		List<ArticleDTO> responseDTOs = new ArrayList<>();
 		if (date < 0) {
 			date = System.currentTimeMillis();
-			this.articleRepository.findAllByDateLessThanEqualOrderByDateDesc(date, this.toPage(paging))
-					.forEach(article -> responseDTOs.add(article.toResponseDTO()));
-		} else this.articleRepository.findAllByDateGreaterThanEqualOrderByDateAsc(date, this.toPage(paging))
-				.forEach(article -> responseDTOs.add(article.toResponseDTO()));
-		if (responseDTOs.isEmpty()) return Result.of(Error.NOT_FOUND, NAME_KEY);
+			return this.toResponse(this.articleRepository.findAllByDateLessThanEqualOrderByDateDesc(date,
+					this.toPage(paging)), true);
+		} else return this.toResponse(this.articleRepository.findAllByDateGreaterThanEqualOrderByDateAsc(date,
+				this.toPage(paging)), false);
+	}
+
+	/**
+	 * Get summaries of articles after date with pagination.
+	 * The content is not loaded, it's fetched per article by {@link #getArticle(int)}.
+	 *
+	 * @param date   since when articles should be listed
+	 * @param paging of articles
+	 * @return found summaries
+	 * @see #getArticlesAfter(long, Paging)
+	 */
+	public Result<GetArticleSummariesResponseDTO> getArticleSummariesAfter(long date, Paging paging) {
+		if (date < 0) {
+			date = System.currentTimeMillis();
+			return this.toSummaryResponse(this.articleRepository.findAllSummariesByDateLessThanEqualOrderByDateDesc(
+					date, this.toPage(paging)), true);
+		} else return this.toSummaryResponse(this.articleRepository.findAllSummariesByDateGreaterThanEqualOrderByDateAsc(
+				date, this.toPage(paging)), false);
+	}
+
+	/**
+	 * Get articles before or after a cursor.
+	 * Older articles are listed newest first, newer articles oldest first.
+	 *
+	 * @param before cursor to get older articles by, might be null
+	 * @param after  cursor to get newer articles by, might be null
+	 * @param paging only the size is used
+	 * @return found articles
+	 * @see Cursor
+	 */
+	public Result<GetArticlesResponseDTO> getArticlesByCursor(String before, String after, Paging paging) {
+		return this.byCursor(before, after, paging,
+				(cursor, page) -> this.toResponse(
+						this.articleRepository.findAllBefore(cursor.getDate(), cursor.getId(), page), true),
+				(cursor, page) -> this.toResponse(
+						this.articleRepository.findAllAfter(cursor.getDate(), cursor.getId(), page), false));
+	}
+
+	/**
+	 * Get summaries of articles before or after a cursor.
+	 *
+	 * @param before cursor to get older articles by, might be null
+	 * @param after  cursor to get newer articles by, might be null
+	 * @param paging only the size is used
+	 * @return found summaries
+	 * @see #getArticlesByCursor(String, String, Paging)
+	 */
+	public Result<GetArticleSummariesResponseDTO> getArticleSummariesByCursor(String before, String after,
+			Paging paging) {
+		return this.byCursor(before, after, paging,
+				(cursor, page) -> this.toSummaryResponse(
+						this.articleRepository.findAllSummariesBefore(cursor.getDate(), cursor.getId(), page), true),
+				(cursor, page) -> this.toSummaryResponse(
+						this.articleRepository.findAllSummariesAfter(cursor.getDate(), cursor.getId(), page), false));
+	}
+
+	/**
+	 * Parse the given cursor and get the articles before or after it.
+	 *
+	 * @param before cursor to get older articles by, might be null
+	 * @param after  cursor to get newer articles by, might be null
+	 * @param paging only the size is used
+	 * @param older  to get articles before cursor
+	 * @param newer  to get articles after cursor
+	 * @param <T>    type of response
+	 * @return found articles
+	 */
+	private <T> Result<T> byCursor(String before, String after, Paging paging,
+			BiFunction<Cursor, PageRequest, Result<T>> older, BiFunction<Cursor, PageRequest, Result<T>> newer) {
+		if (before != null && after != null) return Result.of(Error.INVALID_PARAM, "before and after");
+
+		Cursor cursor = Cursor.parse(before != null ? before : after);
+		if (cursor == null) return Result.of(Error.INVALID_PARAM, before != null ? "before" : "after");
+
+		PageRequest page = this.toPage(0, paging.getSize());
+		return before != null ? older.apply(cursor, page) : newer.apply(cursor, page);
+	}
+
+	/**
+	 * Convert articles into a response with continuation tokens of the oldest and newest article.
+	 *
+	 * @param articles   ordered by date
+	 * @param descending if articles are ordered newest first
+	 * @return response
+	 */
+	private Result<GetArticlesResponseDTO> toResponse(List<ArticleModel> articles, boolean descending) {
+		if (articles.isEmpty()) return Result.of(Error.NOT_FOUND, NAME_KEY);
 
-		return Result.of(new GetArticlesResponseDTO(responseDTOs));
+		List<ArticleDTO> responseDTOs = new ArrayList<>(articles.size());
+		articles.forEach(article -> responseDTOs.add(article.toResponseDTO()));
+
+		return Result.of(new GetArticlesResponseDTO(responseDTOs,
+				token(articles, descending, true), token(articles, descending, false)));
+	}
+
+	/**
+	 * Convert summaries into a response with continuation tokens of the oldest and newest article.
+	 *
+	 * @param articles   ordered by date
+	 * @param descending if articles are ordered newest first
+	 * @return response
+	 */
+	private Result<GetArticleSummariesResponseDTO> toSummaryResponse(List<ArticleSummaryProjection> articles,
+			boolean descending) {
+		if (articles.isEmpty()) return Result.of(Error.NOT_FOUND, NAME_KEY);
+
+		List<ArticleSummaryDTO> responseDTOs = new ArrayList<>(articles.size());
+		articles.forEach(article -> responseDTOs.add(article.toSummaryDTO()));
+
+		return Result.of(new GetArticleSummariesResponseDTO(responseDTOs,
+				token(responseDTOs, descending, true), token(responseDTOs, descending, false)));
+	}
+
+	/**
+	 * Get the continuation token of the oldest or newest article.
+	 *
+	 * @param articles   ordered by date, not empty
+	 * @param descending if articles are ordered newest first
+	 * @param oldest     if the token of the oldest article should be returned, otherwise of the newest
+	 * @return token
+	 */
+	private static String token(List<? extends Positioned> articles, boolean descending, boolean oldest) {
+		return articles.get(descending == oldest ? articles.size() - 1 : 0).toCursor().toToken();
 	}
 
 	/**
 	 * Check if any article was updated.
+	 * Hashes are checked in memory, so checking many articles doesn't cause any query.
 	 *
-	 * @param dto hashes of articles
-	 * @return list of articles that were updated
+	 * @param dto hashes of articles, optionally by article id
+	 * @return hashes that are outdated and the current hashes of changed articles by id if ids were given
 	 */
 	public Result<ArticlesUpdatedResponseDTO> checkArticlesUpdated(ArticlesUpdatedRequestDTO dto) {
+		this.loadContentHashes();
+
 		List<String> hashes = new ArrayList<>();
-		for (String hash : dto.getHashes()) {
-			if (!this.articleRepository.existsByContentHash(hash)) hashes.add(hash);
+		if (dto.getHashes() != null) for (String hash : dto.getHashes()) {
+			if (hash == null || !this.articleIdsByHash.containsKey(hash)) hashes.add(hash);
+		}
+
+		//Deleted or unknown articles are returned with null as hash
+		Map<Integer, String> articles = null;
+		if (dto.getArticles() != null) {
+			articles = new HashMap<>();
+			for (Map.Entry<Integer, String> article : dto.getArticles().entrySet()) {
+				String hash = this.contentHashes.get(article.getKey());
+				if (!Objects.equals(hash, article.getValue())) articles.put(article.getKey(), hash);
+			}
 		}
 
-		return Result.of(new ArticlesUpdatedResponseDTO(hashes));
+		return Result.of(new ArticlesUpdatedResponseDTO(hashes, articles));
 	}
 
 	/**
@@ -5,13 +5,18 @@
 package io.github.paexception.engelsburg.api.controller.shared;
 
 import io.github.paexception.engelsburg.api.endpoint.dto.CafeteriaInformationDTO;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import static io.github.paexception.engelsburg.api.util.Constants.Cafeteria.NAME_KEY;
 
 @Component
+@RequiredArgsConstructor
 public class CafeteriaController {
 
+	private final ResponseCache responseCache;
 	private CafeteriaInformationDTO dto;
 
 	/**
@@ -21,6 +26,7 @@ public class CafeteriaController {
 	 */
 	public void update(CafeteriaInformationDTO dto) {
 		this.dto = dto;
+		this.responseCache.invalidate(NAME_KEY);
 	}
 
 	/**
@@ -9,6 +9,7 @@ import io.github.paexception.engelsburg.api.database.repository.EventRepository;
 import io.github.paexception.engelsburg.api.endpoint.dto.EventDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetEventsResponseDTO;
 import io.github.paexception.engelsburg.api.service.scheduled.EventUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
 import lombok.AllArgsConstructor;
@@ -26,6 +27,7 @@ import static io.github.paexception.engelsburg.api.util.Constants.Event.NAME_KEY
 public class EventController {
 
 	private final EventRepository eventRepository;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Create a new event.
@@ -34,6 +36,7 @@ public class EventController {
 	 */
 	public void createEvent(EventDTO dto) {
 		this.eventRepository.save(new EventModel(-1, dto.getDate(), dto.getTitle()));
+		this.responseCache.invalidate(NAME_KEY);
 	}
 
 	/**
@@ -44,6 +47,7 @@ public class EventController {
 	@Transactional
 	public void clearAllEvents() {
 		this.eventRepository.deleteAll();
+		this.responseCache.invalidate(NAME_KEY);
 	}
 
 	/**
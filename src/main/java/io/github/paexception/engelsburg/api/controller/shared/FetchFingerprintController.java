@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.controller.shared;
+
+import io.github.paexception.engelsburg.api.database.model.FetchFingerprintModel;
+import io.github.paexception.engelsburg.api.database.repository.FetchFingerprintRepository;
+import io.github.paexception.engelsburg.api.service.FetchingService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import javax.transaction.Transactional;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controller for fingerprints of fetched resources.
+ * Only {@link FetchingService}s are supposed to call these functions!
+ */
+@Component
+@AllArgsConstructor
+public class FetchFingerprintController {
+
+	private final FetchFingerprintRepository fetchFingerprintRepository;
+
+	/**
+	 * Load all fingerprints of a service.
+	 *
+	 * @param service name of service
+	 * @return fingerprints by key
+	 */
+	public Map<String, byte[]> load(String service) {
+		Map<String, byte[]> fingerprints = new HashMap<>();
+		for (FetchFingerprintModel fingerprint : this.fetchFingerprintRepository.findAllByService(service))
+			fingerprints.put(fingerprint.getFingerprintKey(), fingerprint.getHash());
+
+		return fingerprints;
+	}
+
+	/**
+	 * Create or update the fingerprint of a key.
+	 *
+	 * @param service name of service
+	 * @param key     of fingerprint
+	 * @param hash    fingerprint
+	 */
+	public void save(String service, String key, byte[] hash) {
+		FetchFingerprintModel fingerprint = this.fetchFingerprintRepository
+				.findByServiceAndFingerprintKey(service, key)
+				.orElseGet(() -> new FetchFingerprintModel(service, key, null));
+		fingerprint.setHash(hash);
+
+		this.fetchFingerprintRepository.save(fingerprint);
+	}
+
+	/**
+	 * Delete the fingerprint of a key.
+	 *
+	 * @param service name of service
+	 * @param key     of fingerprint
+	 */
+	@Transactional
+	public void delete(String service, String key) {
+		this.fetchFingerprintRepository.deleteByServiceAndFingerprintKey(service, key);
+	}
+}
@@ -5,16 +5,21 @@
 package io.github.paexception.engelsburg.api.controller.shared;
 
 import io.github.paexception.engelsburg.api.endpoint.dto.SolarSystemDTO;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import static io.github.paexception.engelsburg.api.util.Constants.SolarSystem.NAME_KEY;
 
 /**
  * Controller to handle all solar system actions.
  */
 @Component
+@RequiredArgsConstructor
 public class SolarSystemController {
 
+	private final ResponseCache responseCache;
 	private SolarSystemDTO dto;
 
 	/**
@@ -38,6 +43,7 @@ public class SolarSystemController {
 		if (this.dto == null) this.dto = new SolarSystemDTO();
 
 		this.dto.updateData(date, energy, co2avoidance, payment);
+		this.responseCache.invalidate(NAME_KEY);
 	}
 
 	/**
@@ -47,5 +53,6 @@ public class SolarSystemController {
 	 */
 	public void updateText(String text) {
 		this.dto.setText(text);
+		this.responseCache.invalidate(NAME_KEY);
 	}
 }
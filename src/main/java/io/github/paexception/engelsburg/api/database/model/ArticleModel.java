@@ -5,6 +5,8 @@
 package io.github.paexception.engelsburg.api.database.model;
 
 import io.github.paexception.engelsburg.api.endpoint.dto.ArticleDTO;
+import io.github.paexception.engelsburg.api.spring.paging.Cursor;
+import io.github.paexception.engelsburg.api.spring.paging.Positioned;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +16,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
@@ -24,8 +27,11 @@ import javax.validation.constraints.NotBlank;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
-public class ArticleModel {
+@Table(indexes = {
+		@Index(columnList = "articleId, contentHash"),
+		@Index(columnList = "date, articleId")
+})
+public class ArticleModel implements Positioned {
 
 	@Setter(AccessLevel.NONE)
 	@Id
@@ -61,6 +67,11 @@ public class ArticleModel {
 		);
 	}
 
+	@Override
+	public Cursor toCursor() {
+		return new Cursor(this.date, this.articleId);
+	}
+
 	public ArticleModel update(ArticleDTO dto) {
 		this.date = dto.getDate();
 		this.link = dto.getLink();
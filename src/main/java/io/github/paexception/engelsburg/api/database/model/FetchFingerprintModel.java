@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"service", "fingerprintKey"}))
+public class FetchFingerprintModel {
+
+	@Setter(AccessLevel.NONE)
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private int fetchFingerprintId;
+
+	@NotBlank
+	private String service;
+	@NotBlank
+	private String fingerprintKey;
+	@Column(length = 64)
+	private byte[] hash;
+
+	public FetchFingerprintModel(String service, String fingerprintKey, byte[] hash) {
+		this.service = service;
+		this.fingerprintKey = fingerprintKey;
+		this.hash = hash;
+	}
+}
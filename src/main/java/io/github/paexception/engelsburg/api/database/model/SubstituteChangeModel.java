@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.sql.Date;
+
+/**
+ * Change of a substitute, the generated version increases with every change.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(columnList = "date"))
+public class SubstituteChangeModel {
+
+	@Setter(AccessLevel.NONE)
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private long version;
+
+	private long substituteId;
+	@NotNull
+	private Date date;
+	@NotNull
+	@Enumerated(EnumType.STRING)
+	private Type type;
+
+	public SubstituteChangeModel(long substituteId, Date date, Type type) {
+		this.substituteId = substituteId;
+		this.date = date;
+		this.type = type;
+	}
+
+	public enum Type {
+		CREATE,
+		UPDATE,
+		DELETE
+	}
+}
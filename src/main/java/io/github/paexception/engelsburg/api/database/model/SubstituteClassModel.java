@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotBlank;
+
+/**
+ * Single class of a substitute as split by {@link SubstituteModel#splitClasses(String)}.
+ * Allows filtering substitutes by classes with an indexed query instead of LIKE patterns.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+		@Index(columnList = "className, substituteId"),
+		@Index(columnList = "substituteId")
+})
+public class SubstituteClassModel {
+
+	@Setter(AccessLevel.NONE)
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private long substituteClassId;
+
+	private long substituteId;
+	@NotBlank
+	private String className;
+
+	public SubstituteClassModel(long substituteId, String className) {
+		this.substituteId = substituteId;
+		this.className = className;
+	}
+}
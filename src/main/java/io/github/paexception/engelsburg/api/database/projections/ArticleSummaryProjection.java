@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.projections;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.ArticleSummaryDTO;
+
+/**
+ * Article without its content, selected without loading the content at all.
+ */
+public interface ArticleSummaryProjection {
+
+	int getArticleId();
+
+	long getDate();
+
+	String getLink();
+
+	String getTitle();
+
+	String getContentHash();
+
+	String getMediaUrl();
+
+	String getBlurHash();
+
+	default ArticleSummaryDTO toSummaryDTO() {
+		return new ArticleSummaryDTO(
+				this.getArticleId(),
+				this.getDate(),
+				this.getLink(),
+				this.getTitle(),
+				this.getContentHash(),
+				this.getMediaUrl(),
+				this.getBlurHash()
+		);
+	}
+}
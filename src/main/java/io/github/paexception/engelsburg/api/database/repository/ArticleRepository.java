@@ -6,6 +6,7 @@ package io.github.paexception.engelsburg.api.database.repository;
 
 import io.github.paexception.engelsburg.api.database.model.ArticleModel;
 import io.github.paexception.engelsburg.api.database.projections.ArticleIdAndContentHashProjection;
+import io.github.paexception.engelsburg.api.database.projections.ArticleSummaryProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
@@ -16,16 +17,82 @@ import java.util.Optional;
 @Repository
 public interface ArticleRepository extends PagingAndSortingRepository<ArticleModel, Integer> {
 
+	/**
+	 * Selection of {@link ArticleSummaryProjection}, the content is never loaded.
+	 */
+	String SUMMARY = "a.articleId AS articleId, a.date AS date, a.link AS link, a.title AS title, "
+			+ "a.contentHash AS contentHash, a.mediaUrl AS mediaUrl, a.blurHash AS blurHash";
+
 	List<ArticleModel> findAllByDateGreaterThanEqualOrderByDateAsc(long date, Pageable pageable);
 
 	List<ArticleModel> findAllByDateLessThanEqualOrderByDateDesc(long date, Pageable pageable);
 
+	List<ArticleSummaryProjection> findAllSummariesByDateGreaterThanEqualOrderByDateAsc(long date, Pageable pageable);
+
+	List<ArticleSummaryProjection> findAllSummariesByDateLessThanEqualOrderByDateDesc(long date, Pageable pageable);
+
+	/**
+	 * Get the articles older than a position, newest first.
+	 * Seeks by the index on date and article id instead of skipping an offset.
+	 *
+	 * @param date      of position
+	 * @param articleId of position, orders articles of the same date
+	 * @param pageable  limit of articles
+	 * @return found articles
+	 */
+	@Query("SELECT a FROM ArticleModel a WHERE a.date < ?1 OR (a.date = ?1 AND a.articleId < ?2) "
+			+ "ORDER BY a.date DESC, a.articleId DESC")
+	List<ArticleModel> findAllBefore(long date, int articleId, Pageable pageable);
+
+	/**
+	 * Get the articles newer than a position, oldest first.
+	 *
+	 * @param date      of position
+	 * @param articleId of position, orders articles of the same date
+	 * @param pageable  limit of articles
+	 * @return found articles
+	 * @see #findAllBefore(long, int, Pageable)
+	 */
+	@Query("SELECT a FROM ArticleModel a WHERE a.date > ?1 OR (a.date = ?1 AND a.articleId > ?2) "
+			+ "ORDER BY a.date ASC, a.articleId ASC")
+	List<ArticleModel> findAllAfter(long date, int articleId, Pageable pageable);
+
+	/**
+	 * Get the summaries of articles older than a position, newest first.
+	 *
+	 * @param date      of position
+	 * @param articleId of position, orders articles of the same date
+	 * @param pageable  limit of articles
+	 * @return found summaries
+	 * @see #findAllBefore(long, int, Pageable)
+	 */
+	@Query("SELECT " + SUMMARY + " FROM ArticleModel a WHERE a.date < ?1 OR (a.date = ?1 AND a.articleId < ?2) "
+			+ "ORDER BY a.date DESC, a.articleId DESC")
+	List<ArticleSummaryProjection> findAllSummariesBefore(long date, int articleId, Pageable pageable);
+
+	/**
+	 * Get the summaries of articles newer than a position, oldest first.
+	 *
+	 * @param date      of position
+	 * @param articleId of position, orders articles of the same date
+	 * @param pageable  limit of articles
+	 * @return found summaries
+	 * @see #findAllAfter(long, int, Pageable)
+	 */
+	@Query("SELECT " + SUMMARY + " FROM ArticleModel a WHERE a.date > ?1 OR (a.date = ?1 AND a.articleId > ?2) "
+			+ "ORDER BY a.date ASC, a.articleId ASC")
+	List<ArticleSummaryProjection> findAllSummariesAfter(long date, int articleId, Pageable pageable);
+
 	Optional<ArticleModel> findByArticleId(int articleId);
 
-	@Query(value = "SELECT * from article", nativeQuery = true)
+	/**
+	 * Get ids and content hashes of all articles.
+	 * Only both columns are selected, so the content is never loaded and the scan is covered by an index.
+	 *
+	 * @return ids and content hashes
+	 */
+	@Query("SELECT a.articleId AS articleId, a.contentHash AS contentHash FROM ArticleModel a")
 	List<ArticleIdAndContentHashProjection> findAllIdsAndContentHashes();
 
 	boolean existsByArticleId(int articleId);
-
-	boolean existsByContentHash(String hash);
 }
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.repository;
+
+import io.github.paexception.engelsburg.api.database.model.FetchFingerprintModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FetchFingerprintRepository extends JpaRepository<FetchFingerprintModel, Integer> {
+
+	List<FetchFingerprintModel> findAllByService(String service);
+
+	Optional<FetchFingerprintModel> findByServiceAndFingerprintKey(String service, String fingerprintKey);
+
+	void deleteByServiceAndFingerprintKey(String service, String fingerprintKey);
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.repository;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteChangeModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.sql.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubstituteChangeRepository extends JpaRepository<SubstituteChangeModel, Long> {
+
+	List<SubstituteChangeModel> findAllByVersionGreaterThanAndDateGreaterThanEqualOrderByVersionAsc(long version, Date date);
+
+	Optional<SubstituteChangeModel> findTopByOrderByVersionDesc();
+
+	@Modifying
+	@Query("DELETE FROM SubstituteChangeModel c WHERE c.date < ?1")
+	void deleteAllByDateBefore(Date date);
+}
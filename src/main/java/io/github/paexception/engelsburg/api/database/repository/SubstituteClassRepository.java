@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.database.repository;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteClassModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+
+@Repository
+public interface SubstituteClassRepository extends JpaRepository<SubstituteClassModel, Long> {
+
+	@Modifying
+	@Query("DELETE FROM SubstituteClassModel c WHERE c.substituteId IN ?1")
+	void deleteAllBySubstituteIdIn(Collection<Long> substituteIds);
+}
@@ -6,15 +6,22 @@ package io.github.paexception.engelsburg.api.database.repository;
 
 import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
 public interface SubstituteRepository extends JpaRepository<SubstituteModel, Integer> {
 
+	/**
+	 * Placeholder of an empty filter, IN () is invalid SQL and nothing equals NULL.
+	 */
+	List<String> NONE = Collections.singletonList(null);
+
 	/**
 	 * Converts the class to a like parameter.
 	 * 9c  --> 9%c%
@@ -33,6 +40,8 @@ public interface SubstituteRepository extends JpaRepository<SubstituteModel, Int
 
 	List<SubstituteModel> findAllByDateGreaterThanEqual(Date date);
 
+	List<SubstituteModel> findAllBySubstituteIdIn(Collection<Long> substituteIds);
+
 	List<SubstituteModel> findAllByDateGreaterThanEqualAndClassNameIsNull(Date date);
 
 	default List<SubstituteModel> findAllByDateGreaterThanEqualAndClassNameVariations(Date date, String className) {
@@ -46,5 +55,63 @@ public interface SubstituteRepository extends JpaRepository<SubstituteModel, Int
 	List<SubstituteModel> findAllByDateGreaterThanEqualAndTeacherInOrDateGreaterThanEqualAndSubstituteTeacherIn(
 			Date date, Collection<String> teacher, Date date2, Collection<String> substituteTeacher);
 
+	/**
+	 * Get substitutes from a date on by the classes of {@link io.github.paexception.engelsburg.api.database.model.SubstituteClassModel}.
+	 * Substitutes without classes, substitutes of any of the classes and substitutes of any of the teachers match.
+	 * Substitutes are without classes if their class is null or splits into none, like 05-10.
+	 * Other than {@link #likeClassName(String)} the classes are matched exactly by an index.
+	 *
+	 * @param date     first day of substitutes
+	 * @param classes  to filter by, must not be empty
+	 * @param teachers to filter by teacher and substitute teacher, must not be empty
+	 * @return matching substitutes
+	 */
+	@Query("SELECT s FROM SubstituteModel s WHERE s.date >= ?1"
+			+ " AND (NOT EXISTS (SELECT c FROM SubstituteClassModel c WHERE c.substituteId = s.substituteId)"
+			+ " OR s.substituteId IN (SELECT c.substituteId FROM SubstituteClassModel c WHERE c.className IN ?2)"
+			+ " OR s.teacher IN ?3 OR (s.teacher IS NOT NULL AND s.substituteTeacher IN ?3))")
+	List<SubstituteModel> findAllByDateGreaterThanEqualAndClassInOrTeacherIn(Date date, Collection<String> classes,
+			Collection<String> teachers);
+
+	/**
+	 * Get substitutes from a date on by filters, see {@link #findAllByDateGreaterThanEqualAndClassInOrTeacherIn}.
+	 *
+	 * @param date     first day of substitutes
+	 * @param classes  to filter by, might be empty
+	 * @param teachers to filter by teacher and substitute teacher, might be empty
+	 * @return all substitutes from date on if no filter is given, otherwise matching substitutes
+	 */
+	default List<SubstituteModel> findAllByDateGreaterThanEqualAndFilters(Date date, Collection<String> classes,
+			Collection<String> teachers) {
+		if (classes.isEmpty() && teachers.isEmpty()) return this.findAllByDateGreaterThanEqual(date);
+
+		return this.findAllByDateGreaterThanEqualAndClassInOrTeacherIn(date,
+				classes.isEmpty() ? NONE : classes, teachers.isEmpty() ? NONE : teachers);
+	}
+
+	/**
+	 * Get substitutes of a day with class, which are not split into
+	 * {@link io.github.paexception.engelsburg.api.database.model.SubstituteClassModel}s yet.
+	 *
+	 * @param date of substitutes
+	 * @return substitutes without classes
+	 */
+	@Query("SELECT s FROM SubstituteModel s WHERE s.date = ?1 AND s.className IS NOT NULL"
+			+ " AND NOT EXISTS (SELECT c FROM SubstituteClassModel c WHERE c.substituteId = s.substituteId)")
+	List<SubstituteModel> findAllByDateAndClassesMissing(Date date);
+
+	/**
+	 * Get substitutes from a day on with class, which are not split into
+	 * {@link io.github.paexception.engelsburg.api.database.model.SubstituteClassModel}s yet.
+	 * Substitutes whose class splits into none are found again by every call, they are few and cheap to split.
+	 *
+	 * @param date of first day
+	 * @return substitutes without classes
+	 * @see #findAllByDateAndClassesMissing(Date)
+	 */
+	@Query("SELECT s FROM SubstituteModel s WHERE s.date >= ?1 AND s.className IS NOT NULL"
+			+ " AND NOT EXISTS (SELECT c FROM SubstituteClassModel c WHERE c.substituteId = s.substituteId)")
+	List<SubstituteModel> findAllByDateGreaterThanEqualAndClassesMissing(Date date);
+
 	void deleteAllByDate(Date date);
 }
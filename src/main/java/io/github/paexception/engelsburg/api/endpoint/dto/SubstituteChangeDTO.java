@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.endpoint.dto;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteChangeModel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubstituteChangeDTO {
+
+	@Schema(example = "1024")
+	private long version;
+	@Schema(example = "UPDATE")
+	private SubstituteChangeModel.Type type;
+	@Schema(example = "512")
+	private long substituteId;
+	@Schema(description = "Not present if deleted")
+	private SubstituteDTO substitute;
+
+}
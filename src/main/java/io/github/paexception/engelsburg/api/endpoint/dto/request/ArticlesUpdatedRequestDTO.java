@@ -4,12 +4,14 @@
 
 package io.github.paexception.engelsburg.api.endpoint.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import javax.validation.constraints.Size;
+import javax.validation.constraints.AssertTrue;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -17,7 +19,20 @@ import java.util.List;
 public class ArticlesUpdatedRequestDTO {
 
 	@Schema(example = "[\"8d635bcd25dd181aa75ff3812f1e0f6e20192c04\"]")
-	@Size(min = 1)
 	private List<String> hashes;
+	@Schema(description = "Content hashes by article id, changed articles are returned with their current hash",
+			example = "{\"108\": \"8d635bcd25dd181aa75ff3812f1e0f6e20192c04\"}")
+	private Map<Integer, String> articles;
+
+	/**
+	 * Either hashes or articles have to be given.
+	 *
+	 * @return true if anything is to check
+	 */
+	@JsonIgnore
+	@AssertTrue
+	public boolean isNotEmpty() {
+		return (this.hashes != null && !this.hashes.isEmpty()) || (this.articles != null && !this.articles.isEmpty());
+	}
 
 }
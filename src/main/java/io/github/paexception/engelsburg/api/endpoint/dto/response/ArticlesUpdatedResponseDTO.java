@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -17,5 +18,9 @@ public class ArticlesUpdatedResponseDTO {
 
 	@Schema(example = "[\"8d635bcd25dd181aa75ff3812f1e0f6e20192c04\"]")
 	private List<String> hashes;
+	@Schema(description = "Current hashes of changed articles by article id, only if articles were given, "
+			+ "null if an article doesn't exist anymore",
+			example = "{\"108\": \"9e746cde36ee292bb86ff4923f2f1f7f31203d15\"}")
+	private Map<Integer, String> articles;
 
 }
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.endpoint.dto.response;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.ArticleSummaryDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetArticleSummariesResponseDTO {
+
+	private List<ArticleSummaryDTO> articles;
+	@Schema(description = "Continuation token to get older articles by", example = "MTY0NTIxNDY1OTkwOSwxMDg")
+	private String before;
+	@Schema(description = "Continuation token to get newer articles by", example = "MTY0NTIxNDY1OTkwOSwxMDg")
+	private String after;
+
+}
@@ -5,6 +5,7 @@
 package io.github.paexception.engelsburg.api.endpoint.dto.response;
 
 import io.github.paexception.engelsburg.api.endpoint.dto.ArticleDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,5 +17,9 @@ import java.util.List;
 public class GetArticlesResponseDTO {
 
 	private List<ArticleDTO> articles;
+	@Schema(description = "Continuation token to get older articles by", example = "MTY0NTIxNDY1OTkwOSwxMDg")
+	private String before;
+	@Schema(description = "Continuation token to get newer articles by", example = "MTY0NTIxNDY1OTkwOSwxMDg")
+	private String after;
 
 }
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.endpoint.dto.response;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteChangeDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetSubstituteChangesResponseDTO {
+
+	private List<SubstituteChangeDTO> changes;
+	private long version;
+
+}
@@ -8,6 +8,9 @@ import io.github.paexception.engelsburg.api.controller.reserved.InformationContr
 import io.github.paexception.engelsburg.api.endpoint.dto.TeacherDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetClassesResponseDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetTeachersResponseDTO;
+import io.github.paexception.engelsburg.api.service.scheduled.SubstituteUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.Cached;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Environment;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Result;
@@ -20,6 +23,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import javax.servlet.http.HttpServletRequest;
+import static io.github.paexception.engelsburg.api.util.Constants.Information.NAME_KEY;
 
 /**
  * RestController for information actions.
@@ -30,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class InformationEndpoint {
 
 	private final InformationController informationController;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Get information about a specific teacher.
@@ -37,16 +43,17 @@ public class InformationEndpoint {
 	 * @see InformationController#getTeacher(String)
 	 */
 	@GetMapping("/teacher/{abbreviation}")
+	@Cached(value = NAME_KEY, refreshedBy = SubstituteUpdateService.class, reserved = true)
 	@Response(TeacherDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "information")
 	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "information")
 	public Object getTeacher(
 			@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
-			@PathVariable("abbreviation") String abbreviation) {
+			@PathVariable("abbreviation") String abbreviation, HttpServletRequest request) {
 		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
 			return Result.of(Error.FORBIDDEN, "information").getHttpResponse();
 
-		return this.informationController.getTeacher(abbreviation).getHttpResponse();
+		return this.responseCache.respond(NAME_KEY, request, () -> this.informationController.getTeacher(abbreviation));
 	}
 
 	/**
@@ -55,14 +62,16 @@ public class InformationEndpoint {
 	 * @see InformationController#getCurrentClasses()
 	 */
 	@GetMapping("/classes")
+	@Cached(value = NAME_KEY, refreshedBy = SubstituteUpdateService.class, reserved = true)
 	@Response(GetClassesResponseDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "information")
 	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "information")
-	public Object getCurrentClasses(@RequestParam @Schema(example = "<substituteKey>") String substituteKey) {
+	public Object getCurrentClasses(@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
+			HttpServletRequest request) {
 		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
 			return Result.of(Error.FORBIDDEN, "information").getHttpResponse();
 
-		return this.informationController.getCurrentClasses().getHttpResponse();
+		return this.responseCache.respond(NAME_KEY, request, this.informationController::getCurrentClasses);
 	}
 
 	/**
@@ -71,14 +80,16 @@ public class InformationEndpoint {
 	 * @see InformationController#getAllTeachers()
 	 */
 	@GetMapping("/teacher")
+	@Cached(value = NAME_KEY, refreshedBy = SubstituteUpdateService.class, reserved = true)
 	@Response(GetTeachersResponseDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "information")
 	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "information")
-	public Object getTeachers(@RequestParam @Schema(example = "<substituteKey>") String substituteKey) {
+	public Object getTeachers(@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
+			HttpServletRequest request) {
 		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
 			return Result.of(Error.FORBIDDEN, "information").getHttpResponse();
 
-		return this.informationController.getAllTeachers().getHttpResponse();
+		return this.responseCache.respond(NAME_KEY, request, this.informationController::getAllTeachers);
 	}
 
 }
@@ -5,8 +5,12 @@
 package io.github.paexception.engelsburg.api.endpoint.reserved;
 
 import io.github.paexception.engelsburg.api.controller.reserved.SubstituteController;
+import io.github.paexception.engelsburg.api.endpoint.dto.response.GetSubstituteChangesResponseDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetSubstituteKeyHash;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetSubstitutesResponseDTO;
+import io.github.paexception.engelsburg.api.service.scheduled.SubstituteUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.Cached;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.Environment;
 import io.github.paexception.engelsburg.api.util.Error;
 import io.github.paexception.engelsburg.api.util.Hash;
@@ -18,9 +22,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.apache.commons.codec.binary.Hex;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import javax.servlet.http.HttpServletRequest;
+import static io.github.paexception.engelsburg.api.util.Constants.Substitute.NAME_KEY;
 
 /**
  * RestController for substitute actions.
@@ -32,6 +39,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class SubstituteEndpoint {
 
 	private final SubstituteController substituteController;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Get all substitutes by filter.
@@ -39,17 +47,55 @@ public class SubstituteEndpoint {
 	 * @see SubstituteController#getSubstitutes(String, String)
 	 */
 	@GetMapping
+	@Cached(value = NAME_KEY, refreshedBy = SubstituteUpdateService.class, reserved = true)
 	@Response(GetSubstitutesResponseDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "substitute")
 	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "substitute")
 	public Object getSubstitutesByFilter(
 			@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
 			@RequestParam(required = false) @Schema(example = "10c,9b") String classes,
-			@RequestParam(required = false) @Schema(example = "GAR,GRB") String teacher) {
+			@RequestParam(required = false) @Schema(example = "GAR,GRB") String teacher,
+			HttpServletRequest request) {
 		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
 			return Result.of(Error.FORBIDDEN, "substitute").getHttpResponse();
 
-		return this.substituteController.getSubstitutes(classes, teacher).getHttpResponse();
+		return this.responseCache.respond(NAME_KEY, request,
+				() -> this.substituteController.getSubstitutes(classes, teacher));
+	}
+
+	/**
+	 * Get the changes of substitutes since a version.
+	 *
+	 * @see SubstituteController#getChanges(long)
+	 */
+	@GetMapping("/changes")
+	@Response(GetSubstituteChangesResponseDTO.class)
+	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "substitute")
+	public Object getSubstituteChanges(
+			@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
+			@RequestParam(required = false, defaultValue = "0") @Schema(example = "1024") long since) {
+		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
+			return Result.of(Error.FORBIDDEN, "substitute").getHttpResponse();
+
+		return this.substituteController.getChanges(since).getHttpResponse();
+	}
+
+	/**
+	 * Stream changes of substitutes by filter as server-sent events.
+	 *
+	 * @see SubstituteController#streamSubstitutes(String, String, Long)
+	 */
+	@GetMapping("/stream")
+	@ErrorResponse(status = 403, messageKey = "FORBIDDEN", extra = "substitute")
+	public Object streamSubstitutesByFilter(
+			@RequestParam @Schema(example = "<substituteKey>") String substituteKey,
+			@RequestParam(required = false) @Schema(example = "10c,9b") String classes,
+			@RequestParam(required = false) @Schema(example = "GAR,GRB") String teacher,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		if (!Environment.SCHOOL_TOKEN.equals(substituteKey))
+			return Result.of(Error.FORBIDDEN, "substitute").getHttpResponse();
+
+		return this.substituteController.streamSubstitutes(classes, teacher, lastEventId);
 	}
 
 	/**
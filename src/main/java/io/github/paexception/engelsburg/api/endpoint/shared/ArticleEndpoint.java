@@ -35,14 +35,29 @@ public class ArticleEndpoint {
 
 	/**
 	 * Return article by specific params.
+	 * If a cursor is given, articles are paged by it instead of by date and page.
+	 * With view=summary articles are returned without content, which is fetched per article.
 	 *
 	 * @see ArticleController#getArticlesAfter(long, Paging)
+	 * @see ArticleController#getArticlesByCursor(String, String, Paging)
+	 * @see ArticleController#getArticleSummariesAfter(long, Paging)
+	 * @see ArticleController#getArticleSummariesByCursor(String, String, Paging)
 	 */
 	@GetMapping
 	@Response(GetArticlesResponseDTO.class)
+	@ErrorResponse(status = 400, messageKey = "INVALID_PARAM", extra = "before")
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "article")
-	public Object getArticles(@RequestParam(required = false, defaultValue = "-1") long date, Paging paging) {
-		return this.articleController.getArticlesAfter(date, paging).getHttpResponse();
+	public Object getArticles(@RequestParam(required = false, defaultValue = "-1") long date,
+			@RequestParam(required = false) String before, @RequestParam(required = false) String after,
+			@RequestParam(required = false, defaultValue = "full") String view, Paging paging) {
+		boolean cursor = before != null || after != null;
+		if (view.equals("summary")) return (cursor
+				? this.articleController.getArticleSummariesByCursor(before, after, paging)
+				: this.articleController.getArticleSummariesAfter(date, paging)).getHttpResponse();
+
+		return (cursor
+				? this.articleController.getArticlesByCursor(before, after, paging)
+				: this.articleController.getArticlesAfter(date, paging)).getHttpResponse();
 	}
 
 	/**
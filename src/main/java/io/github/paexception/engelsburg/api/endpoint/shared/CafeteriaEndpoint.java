@@ -6,12 +6,17 @@ package io.github.paexception.engelsburg.api.endpoint.shared;
 
 import io.github.paexception.engelsburg.api.controller.shared.CafeteriaController;
 import io.github.paexception.engelsburg.api.endpoint.dto.CafeteriaInformationDTO;
+import io.github.paexception.engelsburg.api.service.scheduled.CafeteriaUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.Cached;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.openapi.ErrorResponse;
 import io.github.paexception.engelsburg.api.util.openapi.Response;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import javax.servlet.http.HttpServletRequest;
+import static io.github.paexception.engelsburg.api.util.Constants.Cafeteria.NAME_KEY;
 
 /**
  * RestController for cafeteria actions.
@@ -22,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class CafeteriaEndpoint {
 
 	private final CafeteriaController cafeteriaController;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Get cafeteria information.
@@ -29,9 +35,10 @@ public class CafeteriaEndpoint {
 	 * @return cafeteria info
 	 */
 	@GetMapping("/cafeteria")
+	@Cached(value = NAME_KEY, refreshedBy = CafeteriaUpdateService.class)
 	@Response(CafeteriaInformationDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "cafeteria")
-	public Object getCafeteriaInformation() {
-		return this.cafeteriaController.getInfo().getHttpResponse();
+	public Object getCafeteriaInformation(HttpServletRequest request) {
+		return this.responseCache.respond(NAME_KEY, request, this.cafeteriaController::getInfo);
 	}
 }
@@ -6,12 +6,17 @@ package io.github.paexception.engelsburg.api.endpoint.shared;
 
 import io.github.paexception.engelsburg.api.controller.shared.EventController;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetEventsResponseDTO;
+import io.github.paexception.engelsburg.api.service.scheduled.EventUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.Cached;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.openapi.ErrorResponse;
 import io.github.paexception.engelsburg.api.util.openapi.Response;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import javax.servlet.http.HttpServletRequest;
+import static io.github.paexception.engelsburg.api.util.Constants.Event.NAME_KEY;
 
 /**
  * RestController for event actions.
@@ -22,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class EventEndpoint {
 
 	private final EventController eventController;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Return all events.
@@ -29,9 +35,10 @@ public class EventEndpoint {
 	 * @see EventController#getAllEvents()
 	 */
 	@GetMapping("/event")
+	@Cached(value = NAME_KEY, refreshedBy = EventUpdateService.class)
 	@Response(GetEventsResponseDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "event")
-	public Object getAllEvents() {
-		return this.eventController.getAllEvents().getHttpResponse();
+	public Object getAllEvents(HttpServletRequest request) {
+		return this.responseCache.respond(NAME_KEY, request, this.eventController::getAllEvents);
 	}
 }
@@ -6,12 +6,17 @@ package io.github.paexception.engelsburg.api.endpoint.shared;
 
 import io.github.paexception.engelsburg.api.controller.shared.SolarSystemController;
 import io.github.paexception.engelsburg.api.endpoint.dto.SolarSystemDTO;
+import io.github.paexception.engelsburg.api.service.scheduled.SolarSystemUpdateService;
+import io.github.paexception.engelsburg.api.spring.caching.Cached;
+import io.github.paexception.engelsburg.api.spring.caching.ResponseCache;
 import io.github.paexception.engelsburg.api.util.openapi.ErrorResponse;
 import io.github.paexception.engelsburg.api.util.openapi.Response;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import javax.servlet.http.HttpServletRequest;
+import static io.github.paexception.engelsburg.api.util.Constants.SolarSystem.NAME_KEY;
 
 /**
  * RestController for solar system information.
@@ -22,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class SolarSystemEndpoint {
 
 	private final SolarSystemController solarSystemController;
+	private final ResponseCache responseCache;
 
 	/**
 	 * Get current status of solar system.
@@ -29,9 +35,10 @@ public class SolarSystemEndpoint {
 	 * @see SolarSystemController#info()
 	 */
 	@GetMapping("/solar_system")
+	@Cached(value = NAME_KEY, refreshedBy = SolarSystemUpdateService.class)
 	@Response(SolarSystemDTO.class)
 	@ErrorResponse(status = 404, messageKey = "NOT_FOUND", extra = "solar_system")
-	public Object solarSystem() {
-		return this.solarSystemController.info().getHttpResponse();
+	public Object solarSystem(HttpServletRequest request) {
+		return this.responseCache.respond(NAME_KEY, request, this.solarSystemController::info);
 	}
 }
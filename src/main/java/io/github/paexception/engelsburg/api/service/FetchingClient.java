@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service;
+
+import io.github.paexception.engelsburg.api.util.Environment;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.jsoup.helper.HttpConnection;
+import org.springframework.stereotype.Component;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared http client of all fetching services.
+ * Keeps connections alive, prefers HTTP/2, decompresses gzip and deflate responses and limits the
+ * concurrent connections per host as well as the threads of the client.
+ */
+@Component
+public class FetchingClient {
+
+	private final ThreadPoolExecutor executor;
+	private final HttpClient client;
+	private final int readTimeout;
+	private final int maxConnectionsPerHost;
+	private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a client configured by the environment.
+	 */
+	public FetchingClient() {
+		this(Environment.FETCH_CONNECT_TIMEOUT, Environment.FETCH_READ_TIMEOUT,
+				Environment.FETCH_MAX_CONNECTIONS_PER_HOST, Environment.FETCH_THREADS);
+	}
+
+	/**
+	 * Create a client.
+	 *
+	 * @param connectTimeout        millis to connect
+	 * @param readTimeout           millis to receive a response
+	 * @param maxConnectionsPerHost concurrent connections per host
+	 * @param threads               maximum threads of the client, idle threads are stopped
+	 */
+	public FetchingClient(int connectTimeout, int readTimeout, int maxConnectionsPerHost, int threads) {
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "fetching-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(Duration.ofMillis(connectTimeout))
+				.executor(this.executor)
+				.build();
+		this.readTimeout = readTimeout;
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+	/**
+	 * Stop the threads of the client, running requests fail.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Request an url.
+	 *
+	 * @param url      to request
+	 * @param headers  additional request headers
+	 * @param deadline epoch millis until the request has to be finished
+	 * @return response, status is either 2xx or 304
+	 * @throws IOException if any error occurs, the deadline exceeded or the response status is an error
+	 */
+	public Response fetch(String url, Map<String, String> headers, long deadline) throws IOException {
+		URI uri = URI.create(url);
+		Semaphore connections = this.hosts.computeIfAbsent(uri.getHost(),
+				host -> new Semaphore(this.maxConnectionsPerHost, true));
+
+		try {
+			if (!connections.tryAcquire(remaining(deadline), TimeUnit.MILLISECONDS))
+				throw new HttpTimeoutException("Deadline exceeded waiting for connection to " + uri.getHost());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for connection to " + uri.getHost());
+		}
+
+		try {
+			HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+					.timeout(Duration.ofMillis(Math.min(this.readTimeout, remaining(deadline))))
+					.header("User-Agent", HttpConnection.DEFAULT_UA)
+					.header("Accept-Encoding", "gzip, deflate");
+			headers.forEach(request::header);
+
+			HttpResponse<byte[]> response = this.client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+			if (response.statusCode() >= 400)
+				throw new IOException("HTTP error " + response.statusCode() + " fetching " + url);
+
+			return new Response(response.statusCode(), response.headers(), decode(response));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted fetching " + url);
+		} finally {
+			connections.release();
+		}
+	}
+
+	/**
+	 * Get the remaining millis until a deadline.
+	 *
+	 * @param deadline epoch millis
+	 * @return remaining millis
+	 * @throws HttpTimeoutException if the deadline already exceeded
+	 */
+	private static long remaining(long deadline) throws HttpTimeoutException {
+		if (deadline == Long.MAX_VALUE) return Long.MAX_VALUE;
+
+		long remaining = deadline - System.currentTimeMillis();
+		if (remaining <= 0) throw new HttpTimeoutException("Deadline of job exceeded");
+
+		return remaining;
+	}
+
+	/**
+	 * Decompress the body of a response by its Content-Encoding.
+	 *
+	 * @param response to decode
+	 * @return decoded body
+	 * @throws IOException if the body couldn't be decompressed
+	 */
+	private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+		String encoding = response.headers().firstValue("Content-Encoding").orElse("").toLowerCase(Locale.ROOT);
+		if (response.body().length == 0) return response.body();
+
+		InputStream input;
+		switch (encoding) {
+			case "gzip":
+			case "x-gzip":
+				input = new GZIPInputStream(new ByteArrayInputStream(response.body()));
+				break;
+			case "deflate":
+				input = new InflaterInputStream(new ByteArrayInputStream(response.body()));
+				break;
+			default:
+				return response.body();
+		}
+
+		try (input) {
+			return input.readAllBytes();
+		}
+	}
+
+	/**
+	 * Decoded response of a request.
+	 */
+	@Getter
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	public static class Response {
+
+		private final int status;
+		private final HttpHeaders headers;
+		private final byte[] body;
+
+		/**
+		 * Get the first value of a header.
+		 *
+		 * @param name of header
+		 * @return value or null if not present
+		 */
+		@Nullable
+		public String header(String name) {
+			return this.headers.firstValue(name).orElse(null);
+		}
+
+		/**
+		 * Get the charset given by the Content-Type header.
+		 *
+		 * @return charset or null if not specified or unsupported
+		 */
+		@Nullable
+		public String charset() {
+			String contentType = this.header("Content-Type");
+			if (contentType == null) return null;
+
+			int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+			if (index < 0) return null;
+
+			String charset = contentType.substring(index + 8).split(";")[0].replace("\"", "").trim();
+			return Charset.isSupported(charset) ? charset : null;
+		}
+
+		/**
+		 * Get the body as text.
+		 *
+		 * @return body decoded with the charset of the response, UTF-8 by default
+		 */
+		public String text() {
+			String charset = this.charset();
+
+			return new String(this.body, charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Check whether the resource was not modified since the last conditional request.
+		 *
+		 * @return true if status is 304
+		 */
+		public boolean isNotModified() {
+			return this.status == 304;
+		}
+
+	}
+
+}
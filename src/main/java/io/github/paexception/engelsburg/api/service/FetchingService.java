@@ -4,17 +4,33 @@
 
 package io.github.paexception.engelsburg.api.service;
 
+import io.github.paexception.engelsburg.api.controller.shared.FetchFingerprintController;
 import io.github.paexception.engelsburg.api.util.Hash;
+import org.springframework.beans.factory.annotation.Autowired;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Implement to allow services to unify requests and to check for changes.
  */
 public abstract class FetchingService {
 
-	private final Map<String, byte[]> currentHash = new HashMap<>();
+	private final Map<String, byte[]> currentHash = new ConcurrentHashMap<>();
+	private final Map<String, byte[]> pendingHashes = new ConcurrentHashMap<>();
+	private final Map<String, String> eTags = new ConcurrentHashMap<>();
+	private final Map<String, String> lastModified = new ConcurrentHashMap<>();
+	private final Map<String, String[]> pendingValidators = new ConcurrentHashMap<>();
+	private final ThreadLocal<Long> deadline = new ThreadLocal<>();
+	private volatile long lastJobStart;
+	private FetchFingerprintController fetchFingerprintController;
+	private FetchingClient fetchingClient;
 
 	/**
 	 * Inherited to unify requests of different types of services.
@@ -25,6 +41,226 @@ public abstract class FetchingService {
 	 */
 	protected abstract Object request(String url) throws Exception;
 
+	/**
+	 * Inject the controller of persisted fingerprints and load the fingerprints of this service.
+	 *
+	 * @param fetchFingerprintController to load and save fingerprints
+	 */
+	@Autowired(required = false)
+	public void setFetchFingerprintController(FetchFingerprintController fetchFingerprintController) {
+		this.fetchFingerprintController = fetchFingerprintController;
+		this.currentHash.putAll(fetchFingerprintController.load(this.getClass().getSimpleName()));
+	}
+
+	/**
+	 * Inject the client all requests are sent by.
+	 *
+	 * @param fetchingClient shared client
+	 */
+	@Autowired
+	public void setFetchingClient(FetchingClient fetchingClient) {
+		this.fetchingClient = fetchingClient;
+	}
+
+	/**
+	 * Get the client all requests are sent by, to send requests within {@link #deadline()} on behalf of the job.
+	 *
+	 * @return shared client
+	 */
+	protected final FetchingClient getFetchingClient() {
+		return this.fetchingClient;
+	}
+
+	/**
+	 * Start a job. All requests of the current thread have to be finished within the given timeout.
+	 * Whatever a previous job fetched but didn't commit is discarded, so it is fetched again.
+	 *
+	 * @param timeout of job
+	 */
+	protected final void startJob(Duration timeout) {
+		this.discard();
+		this.lastJobStart = System.currentTimeMillis();
+		this.deadline.set(System.currentTimeMillis() + timeout.toMillis());
+	}
+
+	/**
+	 * Get the start of the last job.
+	 *
+	 * @return epoch millis or 0 if no job was started yet
+	 */
+	public long getLastJobStart() {
+		return this.lastJobStart;
+	}
+
+	/**
+	 * Get the deadline of the job running in the current thread.
+	 *
+	 * @return epoch millis or {@link Long#MAX_VALUE} if no job was started
+	 */
+	protected final long deadline() {
+		Long deadline = this.deadline.get();
+
+		return deadline != null ? deadline : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Wrap a task to run with the deadline of the job running in the current thread.
+	 * Used to hand requests of a job to other threads.
+	 *
+	 * @param task to wrap
+	 * @param <T>  type of result
+	 * @return wrapped task
+	 */
+	protected final <T> Callable<T> withDeadline(Callable<T> task) {
+		long deadline = this.deadline();
+
+		return () -> {
+			this.deadline.set(deadline);
+			try {
+				return task.call();
+			} finally {
+				this.deadline.remove();
+			}
+		};
+	}
+
+	/**
+	 * Request an url via the shared {@link FetchingClient} within the deadline of the current job.
+	 *
+	 * @param url     to request
+	 * @param headers additional request headers
+	 * @return response
+	 * @throws IOException if any error occurs
+	 */
+	protected final FetchingClient.Response fetch(String url, Map<String, String> headers) throws IOException {
+		return this.fetchingClient.fetch(url, headers, this.deadline());
+	}
+
+	/**
+	 * Get the conditional request headers of an url.
+	 * Contains If-None-Match and If-Modified-Since if the last response of the url delivered validators.
+	 *
+	 * @param url to get the headers of
+	 * @return conditional headers, might be empty
+	 */
+	protected final Map<String, String> conditionalHeaders(String url) {
+		Map<String, String> headers = new HashMap<>();
+		String eTag = this.eTags.get(url), modified = this.lastModified.get(url);
+		if (eTag != null) headers.put("If-None-Match", eTag);
+		if (modified != null) headers.put("If-Modified-Since", modified);
+
+		return headers;
+	}
+
+	/**
+	 * Remember the validators of a response to send them on the next request of the same url.
+	 *
+	 * @param url          of response
+	 * @param eTag         ETag header of response, might be null
+	 * @param lastModified Last-Modified header of response, might be null
+	 */
+	private void rememberValidators(String url, @Nullable String eTag, @Nullable String lastModified) {
+		if (eTag != null) this.eTags.put(url, eTag);
+		else this.eTags.remove(url);
+		if (lastModified != null) this.lastModified.put(url, lastModified);
+		else this.lastModified.remove(url);
+	}
+
+	/**
+	 * Commit the validators and fingerprints of everything fetched by the current job.
+	 * Call after it was processed and stored, otherwise a failed response would be answered with NOT_MODIFIED or
+	 * seen as unchanged by the next job and never be processed. Changed persistent fingerprints are saved here,
+	 * so a crash before leads to a re-fetch instead of lost content.
+	 */
+	protected final void commit() {
+		for (String url : this.pendingValidators.keySet()) {
+			String[] validators = this.pendingValidators.remove(url);
+			if (validators != null) this.rememberValidators(url, validators[0], validators[1]);
+		}
+
+		for (String key : this.pendingHashes.keySet()) {
+			byte[] hash = this.pendingHashes.remove(key);
+			if (hash == null) continue;
+
+			this.currentHash.put(key, hash);
+			if (this.fetchFingerprintController != null && this.isPersistent(key))
+				this.fetchFingerprintController.save(this.getClass().getSimpleName(), key, hash);
+		}
+	}
+
+	/**
+	 * Discard the validators of a response which couldn't be processed, so it is fetched again by the next job.
+	 *
+	 * @param url of response
+	 */
+	protected final void discard(String url) {
+		this.pendingValidators.remove(url);
+	}
+
+	/**
+	 * Discard the fingerprint of something which couldn't be processed, so it is seen as changed by the next job.
+	 *
+	 * @param key of fingerprint
+	 */
+	protected final void discardFingerprint(String key) {
+		this.pendingHashes.remove(key);
+	}
+
+	/**
+	 * Discard everything fetched but not committed.
+	 */
+	protected final void discard() {
+		this.pendingValidators.clear();
+		this.pendingHashes.clear();
+	}
+
+	/**
+	 * Request the raw body of an url conditionally.
+	 *
+	 * @param url to request
+	 * @return body of response or null if the url was not modified since the last request
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected final byte[] fetchIfModified(String url) throws IOException {
+		FetchingClient.Response response = this.fetchIfModifiedResponse(url);
+
+		return response != null ? response.getBody() : null;
+	}
+
+	/**
+	 * Request an url conditionally.
+	 * The validators of the response are only sent by later requests after {@link #commit()}.
+	 *
+	 * @param url to request
+	 * @return response or null if the url was not modified since the last request
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected final FetchingClient.Response fetchIfModifiedResponse(String url) throws IOException {
+		FetchingClient.Response response = this.fetch(url, this.conditionalHeaders(url));
+		if (response.isNotModified()) return null;
+
+		this.pendingValidators.put(url, new String[]{response.header("ETag"), response.header("Last-Modified")});
+		return response;
+	}
+
+	/**
+	 * Request an url only if the raw body changed since the last request.
+	 * The body is fingerprinted before parsing, so unchanged responses never have to be parsed.
+	 *
+	 * @param url to request
+	 * @param key of fingerprint
+	 * @return response or null if the url was not modified or the body did not change
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected final FetchingClient.Response fetchIfChanged(String url, String key) throws IOException {
+		FetchingClient.Response response = this.fetchIfModifiedResponse(url);
+
+		return response != null && this.checkChanges(response.getBody(), key) ? response : null;
+	}
+
 	protected final boolean checkChanges(Object o) {
 		return this.checkChanges(o, "root");
 	}
@@ -37,11 +273,59 @@ public abstract class FetchingService {
 	 * @return true of changes occurred, false otherwise
 	 */
 	protected final boolean checkChanges(Object obj, String key) {
-		byte[] hash = Hash.sha1(obj);
+		return this.updateHash(obj != null ? Hash.toBytes(Hash.fingerprint(obj)) : new byte[0], key);
+	}
+
+	/**
+	 * Check for changes of raw bytes, e.g. the body of a response.
+	 *
+	 * @param raw to check for changes
+	 * @param key if many objects are checked for changes
+	 * @return true of changes occurred, false otherwise
+	 */
+	protected final boolean checkChanges(byte[] raw, String key) {
+		return this.updateHash(Hash.toBytes(Hash.fingerprint(raw)), key);
+	}
+
+	/**
+	 * Whether the fingerprint of a key should survive restarts.
+	 * Only keys whose fetched content is stored persistently should be persisted,
+	 * otherwise the content would be missing after a restart.
+	 *
+	 * @param key of fingerprint
+	 * @return true if persistent, false by default
+	 */
+	protected boolean isPersistent(String key) {
+		return false;
+	}
+
+	/**
+	 * Forget the fingerprints of keys which won't be fetched anymore, e.g. of past days.
+	 *
+	 * @param keys filter of keys to forget
+	 */
+	protected final void forgetFingerprints(Predicate<String> keys) {
+		for (String key : this.currentHash.keySet()) {
+			if (!keys.test(key)) continue;
 
+			this.currentHash.remove(key);
+			this.pendingHashes.remove(key);
+			if (this.fetchFingerprintController != null && this.isPersistent(key))
+				this.fetchFingerprintController.delete(this.getClass().getSimpleName(), key);
+		}
+	}
+
+	/**
+	 * Update the hash of a key, the new hash is only current after {@link #commit()}.
+	 *
+	 * @param hash new hash
+	 * @param key  of hash
+	 * @return true if the hash changed, false otherwise
+	 */
+	private boolean updateHash(byte[] hash, String key) {
 		if (Arrays.equals(hash, this.currentHash.get(key)) || hash == null) return false;
 		else {
-			this.currentHash.put(key, hash);
+			this.pendingHashes.put(key, hash);
 			return true;
 		}
 	}
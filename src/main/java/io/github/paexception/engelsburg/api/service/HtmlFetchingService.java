@@ -6,7 +6,10 @@ package io.github.paexception.engelsburg.api.service;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * Fetching service implementation for HTML websites.
@@ -15,7 +18,49 @@ public abstract class HtmlFetchingService extends FetchingService {
 
 	@Override
 	protected Document request(String url) throws IOException {
-		return Jsoup.connect(url).get();
+		return parse(this.fetch(url, Collections.emptyMap()), url);
+	}
+
+	/**
+	 * Request a website only if it was modified since the last request.
+	 *
+	 * @param url to request
+	 * @return parsed document or null if not modified
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected Document requestIfModified(String url) throws IOException {
+		FetchingClient.Response response = this.fetchIfModifiedResponse(url);
+
+		return response != null ? parse(response, url) : null;
+	}
+
+	/**
+	 * Request a website only if its raw body changed since the last request.
+	 *
+	 * @param url to request
+	 * @param key of fingerprint
+	 * @return parsed document or null if not changed
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected Document requestIfChanged(String url, String key) throws IOException {
+		FetchingClient.Response response = this.fetchIfChanged(url, key);
+
+		return response != null ? parse(response, url) : null;
+	}
+
+	/**
+	 * Parse the body of a response as html document.
+	 * Charset is taken from the response or detected by the document itself.
+	 *
+	 * @param response to parse
+	 * @param url      of response
+	 * @return parsed document
+	 * @throws IOException if the body couldn't be parsed
+	 */
+	protected static Document parse(FetchingClient.Response response, String url) throws IOException {
+		return Jsoup.parse(new ByteArrayInputStream(response.getBody()), response.charset(), url);
 	}
 
 }
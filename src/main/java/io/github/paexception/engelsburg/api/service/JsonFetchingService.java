@@ -6,9 +6,9 @@ package io.github.paexception.engelsburg.api.service;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
-import java.io.DataInputStream;
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.net.URL;
+import java.util.Collections;
 
 /**
  * Fetching service implementation for JSON.
@@ -17,9 +17,36 @@ public abstract class JsonFetchingService extends FetchingService {
 
 	@Override
 	protected JsonElement request(String url) throws IOException {
-		DataInputStream input = new DataInputStream(new URL(url).openConnection().getInputStream());
+		return JsonParser.parseString(this.fetch(url, Collections.emptyMap()).text());
+	}
+
+	/**
+	 * Request json only if it was modified since the last request.
+	 *
+	 * @param url to request
+	 * @return parsed json or null if not modified
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected JsonElement requestIfModified(String url) throws IOException {
+		FetchingClient.Response response = this.fetchIfModifiedResponse(url);
+
+		return response != null ? JsonParser.parseString(response.text()) : null;
+	}
+
+	/**
+	 * Request json only if its raw body changed since the last request.
+	 *
+	 * @param url to request
+	 * @param key of fingerprint
+	 * @return parsed json or null if not changed
+	 * @throws IOException if any error occurs
+	 */
+	@Nullable
+	protected JsonElement requestIfChanged(String url, String key) throws IOException {
+		FetchingClient.Response response = this.fetchIfChanged(url, key);
 
-		return JsonParser.parseString(new String(input.readAllBytes()));
+		return response != null ? JsonParser.parseString(response.text()) : null;
 	}
 
 }
@@ -6,10 +6,12 @@ package io.github.paexception.engelsburg.api.service.scheduled;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import io.github.paexception.engelsburg.api.controller.shared.ArticleController;
 import io.github.paexception.engelsburg.api.database.projections.ArticleIdAndContentHashProjection;
 import io.github.paexception.engelsburg.api.endpoint.dto.ArticleDTO;
 import io.github.paexception.engelsburg.api.endpoint.dto.response.GetArticlesResponseDTO;
+import io.github.paexception.engelsburg.api.service.FetchingClient;
 import io.github.paexception.engelsburg.api.service.JsonFetchingService;
 import io.github.paexception.engelsburg.api.service.notification.NotificationService;
 import io.github.paexception.engelsburg.api.spring.paging.Paging;
@@ -27,9 +29,14 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Service to update articles.
@@ -41,7 +48,11 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 	private static final Logger LOGGER = LoggerFactory.getLogger(ArticleUpdateService.class);
 	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 	private static int counter = 0;
+	private static final String POSTS = "https://engelsburg.smmp.de/wp-json/wp/v2/posts";
+	private static final String FIELDS = "&_fields=id,date,link,title,content,featured_media";
+	private static final int BATCH_SIZE = 100;
 	private static long lastArticleTime = 0;
+	private static long lastChangeCheck = 0;
 
 	private final ArticleController articleController;
 	private final NotificationService notificationService;
@@ -56,6 +67,7 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[ARTICLE] Fetching...");
+		this.startJob(Duration.ofSeconds(50));
 		List<ArticleDTO> articles = this.updateArticles(DATE_FORMAT.format(lastArticleTime + 1), 1);
 		if (articles.isEmpty()) LOGGER.debug("[ARTICLE] Not updated");
 		else LOGGER.debug("[ARTICLE] Fetched " + articles.size());
@@ -68,29 +80,98 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 
 	/**
 	 * Checks for updates of articles every 30 minutes.
+	 * Only articles modified since the last check are requested, on the first check all stored articles are
+	 * requested in batches. Only articles whose content hash differs are updated.
 	 */
 	@Scheduled(fixedRate = 30 * 60 * 1000, initialDelay = 30 * 60 * 1000)
 	@SentryCheckIn("scheduled.article-changend")
 	public void checkIfArticlesChanged() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[ARTICLE] Starting to check for changes...");
+		this.startJob(Duration.ofMinutes(25));
+		long start = System.currentTimeMillis();
+		Map<Integer, String> hashes = new HashMap<>();
+		for (ArticleIdAndContentHashProjection idAndHash : this.articleController.prepareArticleToUpdate())
+			hashes.put(idAndHash.getArticleId(), idAndHash.getContentHash());
+
 		int counter = 0;
-		for (ArticleIdAndContentHashProjection idAndHash : this.articleController.prepareArticleToUpdate()) {
-			try {
-				JsonElement json = this.request(
-						"https://engelsburg.smmp.de/wp-json/wp/v2/posts/" + idAndHash.getArticleId());
-				String content = json.getAsJsonObject().get("content").getAsJsonObject().get("rendered").getAsString();
-				if (!idAndHash.getContentHash().equals(Result.hash(content))) {
-					counter++;
-					this.articleController.createOrUpdateArticle(this.createArticleDTO(idAndHash.getArticleId(), json));
+		try {
+			if (lastChangeCheck == 0) {
+				//Unknown since when articles might have changed, so check all stored articles
+				List<Integer> articleIds = new ArrayList<>(hashes.keySet());
+				for (int i = 0; i < articleIds.size(); i += BATCH_SIZE) {
+					String include = articleIds.subList(i, Math.min(i + BATCH_SIZE, articleIds.size())).stream()
+							.map(String::valueOf).collect(Collectors.joining(","));
+					counter += this.updateChangedArticles(
+							this.request(POSTS + "?per_page=" + BATCH_SIZE + "&include=" + include + FIELDS), hashes);
 				}
-			} catch (Exception ignored) {
+			} else {
+				//Overlap with the last check, unchanged articles are skipped by their hash anyway
+				String since = DATE_FORMAT.format(lastChangeCheck - 30 * 60 * 1000);
+				//WordPress answers pages past the last one with an error, so stop at the announced count
+				int page = 1, totalPages;
+				do {
+					FetchingClient.Response response = this.fetch(POSTS + "?per_page=" + BATCH_SIZE
+							+ "&modified_after=" + since + "&page=" + page + FIELDS, Collections.emptyMap());
+					counter += this.updateChangedArticles(JsonParser.parseString(response.text()), hashes);
+					totalPages = totalPages(response);
+				} while (page++ < totalPages);
 			}
+			lastChangeCheck = start;
+		} catch (IOException e) {
+			this.logExpectedError("[ARTICLE] Couldn't check for changes", e, LOGGER);
 		}
 		if (counter == 0) LOGGER.debug("[ARTICLE] Not changed");
 		else LOGGER.info("[ARTICLE] Updated " + counter);
 	}
 
+	/**
+	 * Get the count of pages of a paginated WordPress response.
+	 *
+	 * @param response of WordPress
+	 * @return value of the X-WP-TotalPages header, 0 if missing or invalid
+	 */
+	private static int totalPages(FetchingClient.Response response) {
+		String totalPages = response.header("X-WP-TotalPages");
+		if (totalPages == null) return 0;
+
+		try {
+			return Integer.parseInt(totalPages.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Update all stored articles of a response whose content changed.
+	 *
+	 * @param posts  response of WordPress, errors are objects
+	 * @param hashes content hashes of stored articles by article id
+	 * @return count of updated articles
+	 */
+	private int updateChangedArticles(JsonElement posts, Map<Integer, String> hashes) {
+		if (!posts.isJsonArray()) return 0;
+
+		int counter = 0;
+		for (JsonElement post : posts.getAsJsonArray()) {
+			int articleId = post.getAsJsonObject().get("id").getAsInt();
+			String hash = hashes.get(articleId);
+			if (hash == null) continue; //New articles are fetched by fetchNewArticles
+
+			String content = post.getAsJsonObject().get("content").getAsJsonObject().get("rendered").getAsString();
+			if (hash.equals(Result.hash(content))) continue;
+
+			try {
+				this.articleController.createOrUpdateArticle(this.createArticleDTO(articleId, post));
+				counter++;
+			} catch (IOException | ParseException e) {
+				this.logExpectedError("[ARTICLE] Couldn't update " + articleId, e, LOGGER);
+			}
+		}
+
+		return counter;
+	}
+
 	/**
 	 * Fetch all articles past a specific date/time.
 	 *
@@ -145,8 +226,8 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 		String blurHash = null;
 
 		try {
-			mediaUrl = WordPressAPI.getFeaturedMedia(article.getAsJsonObject().get("featured_media").getAsInt(),
-					content);
+			mediaUrl = WordPressAPI.getFeaturedMedia(this.getFetchingClient(),
+					article.getAsJsonObject().get("featured_media").getAsInt(), content, this.deadline());
 		} catch (IOException e) {
 			this.logExpectedError("[ARTICLE] Couldn't load media: " + articleId, e, LOGGER);
 		}
@@ -155,7 +236,8 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 			try {
 				LOGGER.trace("[ARTICLE] Loading blurhash of " + articleId);
 				//content = WordpressAPI.applyBlurHashToAllImages(Jsoup.parse(content)).toString(); --> not needed
-				blurHash = mediaUrl != null ? WordPressAPI.getBlurHash(mediaUrl) : null;
+				blurHash = mediaUrl != null
+						? WordPressAPI.getBlurHash(this.getFetchingClient(), mediaUrl, this.deadline()) : null;
 			} catch (IOException e) {
 				this.logExpectedError("[ARTICLE] Couldn't load blur hash of image", e, LOGGER);
 			}
@@ -179,6 +261,7 @@ public class ArticleUpdateService extends JsonFetchingService implements Logging
 	public void loadPastArticles() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[ARTICLE] Starting fetching past articles");
+		this.startJob(Duration.ofHours(1));
 		Result<GetArticlesResponseDTO> lastArticle = this.articleController.getArticlesAfter(-1, new Paging(0, 1));
 		if (lastArticle.isResultPresent()) { //Empty would be an error
 			lastArticleTime = lastArticle.getResult().getArticles().get(0).getDate();
@@ -4,6 +4,7 @@
 
 package io.github.paexception.engelsburg.api.service.scheduled;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.github.paexception.engelsburg.api.controller.shared.CafeteriaController;
 import io.github.paexception.engelsburg.api.endpoint.dto.CafeteriaInformationDTO;
@@ -19,6 +20,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
 
 @Service
 @AllArgsConstructor
@@ -34,27 +36,39 @@ public class CafeteriaUpdateService extends JsonFetchingService implements Loggi
 	@SentryCheckIn("scheduled.cafeteria")
 	public void updateCafeteriaInformation() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
+		this.startJob(Duration.ofSeconds(90));
 		try {
 			LOGGER.debug("[CAFETERIA] Fetching...");
-			JsonObject json = this.request("https://engelsburg.smmp.de/wp-json/wp/v2/pages/635").getAsJsonObject();
-			if (json.get("id") == null) return;
-
-			if (this.checkChanges(json)) {
-				String link = json.get("link").getAsString();
-				String content = json.get("content").getAsJsonObject().get("rendered").getAsString();
-				String mediaUrl = WordPressAPI.getFeaturedMedia(json.get("featured_media").getAsInt(), content);
-				String blurHash = null;
-
-				try {
-					content = WordPressAPI.applyBlurHashToAllImages(Jsoup.parse(content)).toString();
-					blurHash = mediaUrl != null ? WordPressAPI.getBlurHash(mediaUrl) : null;
-				} catch (IOException e) {
-					this.logExpectedError("[CAFETERIA] Couldn't load blur hash of image", e, LOGGER);
-				}
-
-				this.cafeteriaController.update(new CafeteriaInformationDTO(content, link, mediaUrl, blurHash));
-				LOGGER.info("[CAFETERIA] Updated");
-			} else LOGGER.debug("[CAFETERIA] Not changed");
+			JsonElement response = this.requestIfChanged("https://engelsburg.smmp.de/wp-json/wp/v2/pages/635", "root");
+			if (response == null) { //Short-circuit if not changed
+				LOGGER.debug("[CAFETERIA] Not changed");
+				return;
+			}
+
+			JsonObject json = response.getAsJsonObject();
+			if (json.get("id") == null) {
+				this.commit();
+				return;
+			}
+
+			String link = json.get("link").getAsString();
+			String content = json.get("content").getAsJsonObject().get("rendered").getAsString();
+			String mediaUrl = WordPressAPI.getFeaturedMedia(this.getFetchingClient(),
+					json.get("featured_media").getAsInt(), content, this.deadline());
+			String blurHash = null;
+
+			try {
+				content = WordPressAPI.applyBlurHashToAllImages(this.getFetchingClient(), Jsoup.parse(content),
+						this.deadline()).toString();
+				blurHash = mediaUrl != null
+						? WordPressAPI.getBlurHash(this.getFetchingClient(), mediaUrl, this.deadline()) : null;
+			} catch (IOException e) {
+				this.logExpectedError("[CAFETERIA] Couldn't load blur hash of image", e, LOGGER);
+			}
+
+			this.cafeteriaController.update(new CafeteriaInformationDTO(content, link, mediaUrl, blurHash));
+			this.commit();
+			LOGGER.info("[CAFETERIA] Updated");
 		} catch (IOException e) {
 			this.logExpectedError("[CAFETERIA] Couldn't fetch", e, LOGGER);
 		}
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.sql.Date;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,30 +44,39 @@ public class EventUpdateService extends JsonFetchingService implements LoggingCo
 	public void updateEvents() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[EVENT] Fetching...");
+		this.startJob(Duration.ofMinutes(4));
 		try {
-			JsonElement content = this.request(
-					"https://engelsburg.smmp.de/wp-json/wp/v2/pages/318").getAsJsonObject().get(
-					"content").getAsJsonObject().get("rendered");
+			JsonElement response = this.requestIfChanged("https://engelsburg.smmp.de/wp-json/wp/v2/pages/318", "root");
+			if (response == null) { //Short-circuit if not changed
+				LOGGER.debug("[EVENT] Not changed");
+				return;
+			}
 
-			if (this.checkChanges(content)) {
-				List<EventDTO> dtos = new ArrayList<>();
-				Element list = Jsoup.parse(content.getAsString()).getElementsByTag(
-						"ul").first(); //Select event container
-				list.children().forEach(element -> { //iterate through events
-					if (element.getElementsByTag("a").first() != null)
-						dtos.add(new EventDTO(this.parseDate(element.text()),
-								element.getElementsByTag("a").first().text()));
-				});
+			JsonElement content = response.getAsJsonObject().get("content").getAsJsonObject().get("rendered");
 
-				this.eventController.clearAllEvents();
-				dtos.forEach(this.eventController::createEvent);
-				LOGGER.info("[EVENT] Updated");
-			} else LOGGER.debug("[EVENT] Not changed");
+			List<EventDTO> dtos = new ArrayList<>();
+			Element list = Jsoup.parse(content.getAsString()).getElementsByTag(
+					"ul").first(); //Select event container
+			list.children().forEach(element -> { //iterate through events
+				if (element.getElementsByTag("a").first() != null)
+					dtos.add(new EventDTO(this.parseDate(element.text()),
+							element.getElementsByTag("a").first().text()));
+			});
+
+			this.eventController.clearAllEvents();
+			dtos.forEach(this.eventController::createEvent);
+			this.commit();
+			LOGGER.info("[EVENT] Updated");
 		} catch (IOException e) {
 			this.logExpectedError("[EVENT] Couldn't fetch", e, LOGGER);
 		}
 	}
 
+	@Override
+	protected boolean isPersistent(String key) {
+		return "root".equals(key);
+	}
+
 	/**
 	 * Parse dates of the engelsburg website properly.
 	 *
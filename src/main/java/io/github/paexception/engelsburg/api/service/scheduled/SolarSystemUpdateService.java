@@ -6,6 +6,7 @@ package io.github.paexception.engelsburg.api.service.scheduled;
 
 import com.google.gson.JsonParser;
 import io.github.paexception.engelsburg.api.controller.shared.SolarSystemController;
+import io.github.paexception.engelsburg.api.service.FetchingClient;
 import io.github.paexception.engelsburg.api.service.HtmlFetchingService;
 import io.github.paexception.engelsburg.api.util.LoggingComponent;
 import io.sentry.spring.checkin.SentryCheckIn;
@@ -16,9 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-
-import java.io.DataInputStream;
-import java.net.URL;
+import java.time.Duration;
 
 /**
  * Service to update status of solar system.
@@ -38,8 +37,9 @@ public class SolarSystemUpdateService extends HtmlFetchingService implements Log
 	public void updateSolarSystemInfo() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[SOLAR] Fetching...");
+		this.startJob(Duration.ofMinutes(4));
 		try {
-			Document doc = this.request(
+			Document doc = this.requestIfModified(
 					"https://www.sunnyportal.com/Templates/PublicPageOverview.aspx?plant=554d90c7-84a2-474c-94db-d2ac5f5af3c3&splang=de-de");
 
 			final String panelId = "ctl00_ContentPlaceHolder1_PublicPagePlaceholder_PageUserControl_ctl00_UpdatePanel0";
@@ -50,7 +50,7 @@ public class SolarSystemUpdateService extends HtmlFetchingService implements Log
 
 			Element element;
 			String date, energy, co2avoidance, payment;
-			if (this.checkChanges(doc.getElementById(panelId), "data")) {
+			if (doc != null && this.checkChanges(doc.getElementById(panelId), "data")) {
 				element = doc.getElementById(dateId);
 				date = element != null ? element.text() : "--";
 
@@ -67,15 +67,15 @@ public class SolarSystemUpdateService extends HtmlFetchingService implements Log
 				LOGGER.info("[SOLAR] Updated");
 			} else LOGGER.debug("[SOLAR] Not changed");
 
-			String fetched = new String(new DataInputStream(new URL("https://engelsburg.smmp.de/wp-json/wp/v2/pages/68")
-					.openConnection().getInputStream()).readAllBytes());
-
-			if (fetched.length() == 2) return;
-
-			String html = JsonParser.parseString(fetched).getAsJsonObject().get("content").getAsJsonObject().get(
-					"rendered").getAsString();
+			FetchingClient.Response response = this.fetchIfChanged("https://engelsburg.smmp.de/wp-json/wp/v2/pages/68",
+					"text");
+			if (response != null && response.text().length() != 2) {
+				String html = JsonParser.parseString(response.text()).getAsJsonObject().get("content")
+						.getAsJsonObject().get("rendered").getAsString();
 
-			if (this.checkChanges(html, "text")) this.solarSystemController.updateText(html);
+				this.solarSystemController.updateText(html);
+			}
+			this.commit();
 		} catch (Exception e) { //IO and NullPointer
 			this.logExpectedError("[SOLAR] Couldn't fetch", e, LOGGER);
 		}
@@ -7,28 +7,37 @@ package io.github.paexception.engelsburg.api.service.scheduled;
 import io.github.paexception.engelsburg.api.controller.reserved.InformationController;
 import io.github.paexception.engelsburg.api.controller.reserved.SubstituteController;
 import io.github.paexception.engelsburg.api.controller.reserved.SubstituteMessageController;
-import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
-import io.github.paexception.engelsburg.api.endpoint.dto.request.CreateSubstituteMessageRequestDTO;
+import io.github.paexception.engelsburg.api.service.FetchingClient;
 import io.github.paexception.engelsburg.api.service.HtmlFetchingService;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDay;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDayCollector;
+import io.github.paexception.engelsburg.api.service.substitute.SubstitutePageParser;
+import io.github.paexception.engelsburg.api.util.Environment;
 import io.github.paexception.engelsburg.api.util.LoggingComponent;
 import io.sentry.spring.checkin.SentryCheckIn;
 import lombok.AllArgsConstructor;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.sql.Date;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service to update substitutes.
@@ -38,9 +47,20 @@ import java.util.Map;
 public class SubstituteUpdateService extends HtmlFetchingService implements LoggingComponent {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SubstituteUpdateService.class);
+	private static final SubstitutePageParser PAGE_PARSER = SubstitutePageParser.of(Environment.SUBSTITUTE_PARSER);
 	private final SubstituteController substituteController;
 	private final SubstituteMessageController substituteMessageController;
 	private final InformationController informationController;
+	private final Map<Integer, Integer> weeks = new HashMap<>(); //Week of year, Year of last fetched navbar
+	private final ExecutorService weekPool = Executors.newFixedThreadPool(Environment.FETCH_MAX_CONNECTIONS_PER_HOST);
+
+	/**
+	 * Stop the threads fetching the weeks.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		this.weekPool.shutdownNow();
+	}
 
 	/**
 	 * Scheduled function to update substitutes every minute.
@@ -50,288 +70,200 @@ public class SubstituteUpdateService extends HtmlFetchingService implements Logg
 	public void updateSubstitutes() {
 		if ("false".equals(System.getProperty("app.scheduling.enable"))) return;
 		LOGGER.debug("[SUBSTITUTE] Fetching...");
+		this.startJob(Duration.ofSeconds(50));
 		int count = 0;
 
 		try {
 			String navBarUrl = "https://engelsburg.smmp.de/vertretungsplaene/eng/Stp_Upload/frames/navbar.htm";
-			Document navbar = this.request(navBarUrl);
-			LOGGER.trace("[SUBSTITUTE] Requested navbar");
-
-			Map<Integer, Integer> weeks = new HashMap<>(); //Week of year, Year
-			//e.g.
-			// <select name="week" class="selectbox" ...>
-			//   <option value="37">11.9.2023</option>
-			//   <option value="38">18.9.2023</option>
-			// </select>
-			String cssQuery = "select[name=week].selectBox > option";
-			for (Element element : navbar.select(cssQuery)) {
-				//e.g. <option value="37">11.9.2023</option>
-				int weekOfYear = Integer.parseInt(element.attr("value")); //e.g. 37
-				int year = Integer.parseInt(element.text().substring(element.text().lastIndexOf('.') + 1)); //e.g. 2023
-
-				weeks.put(weekOfYear, year);
+			Document navbar = this.requestIfModified(navBarUrl);
+			if (navbar != null) {
+				LOGGER.trace("[SUBSTITUTE] Requested navbar");
+				this.parseNavbar(navbar);
+			} else LOGGER.trace("[SUBSTITUTE] Navbar did not change");
+
+			//Download and parse all weeks concurrently, each week is fetched by its own task
+			List<Future<List<SubstituteDay>>> fetchedWeeks = new ArrayList<>();
+			for (Map.Entry<Integer, Integer> week : this.weeks.entrySet()) {
+				int weekOfYear = week.getKey(), year = week.getValue();
+				fetchedWeeks.add(this.weekPool.submit(this.withDeadline(() -> this.fetchWeek(weekOfYear, year))));
 			}
-			LOGGER.trace("[SUBSTITUTE] Parsed weeks: " + weeks.keySet());
-
-			//e.g. var classes = ["5a","5b","5c",...,"Q4"];
-			String startIdentifier = "var classes = [";
-			String endIdentifier = "];";
-			int startClasses = navbar.html().indexOf(startIdentifier);
-			int endClasses = navbar.html().indexOf(endIdentifier);
-
-			// --> school might have changed the declaration of the classes
-			if (startClasses >= 0 && endClasses > startClasses) {
-				//Extract classes and check for changes, if changed update to informationController
-				String rawClasses = navbar.html().substring(startClasses, endClasses);
-				if (this.checkChanges(rawClasses, "classes")) {
-					rawClasses = rawClasses
-							.replace(startIdentifier, "")
-							.replace(endIdentifier, "")
-							.replaceAll("\"", "");
-
-					//Update current classes
-					if (informationController != null) {
-						this.informationController.setCurrentClasses(rawClasses.split(","));
-						LOGGER.trace("[SUBSTITUTE] Updated classes");
-					} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write classes to database");
-				} else LOGGER.trace("[SUBSTITUTE] Classes did not change");
-			}
-
-			for (int week : weeks.keySet()) { //Iterate weeks
-
-				String convertedWeek = String.valueOf(week);
-				if (convertedWeek.length() == 1) convertedWeek = "0" + convertedWeek;
-				String requestUrl = "https://engelsburg.smmp.de/vertretungsplaene/eng/Stp_Upload/" + convertedWeek + "/w/w00000.htm";
-				//e.g.
-				// 1 <div id="vertretung">
-				// 2   <a name="1">&nbsp;</a>
-				// 3   <br>
-				// 4   <b>11.9. Montag</b>
-				// 5   <a href="#2">[ Dienstag ]</a>
-				// 6   <a href="#3">[ Mittwoch ]</a>
-				// 7   <a href="#4">[ Donnerstag ]</a>
-				// 8   <a href="#5">[ Freitag ]</a>
-				// 9   <p>
-				//10     <table class="subst">...</table>
-				//11   </p>
-				//12   <p>
-				//13     <a name="2">&nbsp;</a>
-				//14     <br>
-				//15     <a href="#1">[ Montag ]</a>
-				//16     <b>12.9. Dienstag</b>
-				//17     ...
-				//18   </p>
-				//19   <p>
-				//20     <table ...>...</table>    <!-- substitute messages
-				//21   </p>
-				//22   <p>
-				//23     <table class="subst">...</table>    <!-- actual substitutes
-				//24   </p>
-				//25   ...
-				//26   <p> </p>
-				//27</div>
-				Element substitute = this.request(requestUrl).getElementById("vertretung");
-				LOGGER.trace("[SUBSTITUTE] Requested substitutes of week " + week);
 
-				//If substitutes have not changed continue with next week
-				if (substitute == null || !this.checkChanges(substitute, "substitutes." + week)) {
-					LOGGER.trace("[SUBSTITUTE] Substitutes of week " + week + " did not change");
-					continue;
-				}
-
-				//Parse date to start with, --> [4]
-				String rawDate = substitute.child(2).text();
-				String dayAndMonth = rawDate.substring(0, rawDate.lastIndexOf('.'));
-				Date currentDate = this.parseDate(dayAndMonth, weeks.get(week));
-				LOGGER.trace("[SUBSTITUTE] First date of week is " + dayAndMonth + "." + weeks.get(week));
-
-				//Remove the already used date elements, [2] - [8]
-				List<Element> substituteContentToParse = substitute.children();
-				for (Element paragraph : substituteContentToParse) {
-					//if (!paragraph.tagName().equals("p") || paragraph.children().isEmpty()) continue;
-					if ((!paragraph.tagName().equals("p") && !paragraph.tagName().equals("table")) || paragraph.children().isEmpty()) continue;
-
-					//Element table = paragraph.child(0);
-					Element table = paragraph; //Might be a bug
-
-					//If the tagName is not equal to "table", there will be information about the current date, --> [16]
-					if (table.tagName().equals("table")) {
-						//If table has class "subst" then it will contain the actual substitutes
-						//Otherwise it will contain the substitute messages
-						// --> [20], --> [23]
-						if (table.hasClass("subst")) {
-							List<SubstituteDTO> substitutes = new ArrayList<>();
-
-							// --> [23]
-							// <table class="subst">
-							//   <tbody>
-							//     <tr class="list">...</tr>    <!-- Header
-							//     <tr class="list odd">
-							//       <td ...>
-							//         <b>8e</b>
-							//       </td>
-							//       <td ...>1-13</td>
-							//       <td ...>&nbsp;</td>
-							//       <td ...>&nbsp;</td>
-							//       <td ...>&nbsp;</td>
-							//       <td ...>Veranst.</td>
-							//       <td ...>&nbsp;</td>
-							//       <td ...>&nbsp;</td>
-							//       <td ...>
-							//         <b>ALL</b>
-							//       </td>
-							//     </tr>
-							//     <tr class="list even">...</tr>
-							//   </tbody>
-							// </table>
-							int splitSubstitute = 0;
-							for (Element row : table.child(0).children()) {
-								//Skip header of row
-								if (!row.hasClass("odd") && !row.hasClass("even")) continue;
-
-								//If the row does not contain a className then this row is used to extend the text from
-								// the previous substitute, so it needs to be added to the latest substitute
-								String lesson = row.child(1).text();
-								if (!substitutes.isEmpty() && !lesson.matches("(.*)[0-9](.*)")) {
-									this.appendTextOnLastSubstitute(row, substitutes);
-									String appendedText = substitutes.get(substitutes.size() - 1).getText();
-
-									//There is also a possibility that the previous substitute will go over more than
-									// one hour, in this case every single one needs to be updated
-									for (int i = 1; i <= splitSubstitute; i++) {
-										substitutes.get(substitutes.size() - 1 - i).setText(appendedText);
-									}
-								} else {
-									var newDtos = this.createSubstituteDTOs(row, currentDate);
-
-									//If more than one substitute is returned it must have been split
-									splitSubstitute = newDtos.size() - 1;
-									substitutes.addAll(newDtos);
-								}
-
-							}
-
-							//After cycling through the list update all substitutes to the controller
-							if (!substitutes.isEmpty()) {
-								if (this.substituteController != null) {
-									this.substituteController.updateSubstitutes(substitutes, currentDate);
-								} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write substitutes to database");
-
-								LOGGER.trace("[SUBSTITUTE] Updated substitutes: " + substitutes.size());
-								count += substitutes.size();
-							} else LOGGER.trace("[SUBSTITUTE] No substitutes updated");
-						} else {
-							//Parse information to get the latest substitute message
-							CreateSubstituteMessageRequestDTO dto = new CreateSubstituteMessageRequestDTO();
-							dto.setDate(currentDate);
-
-							Elements tableEntries = paragraph.getElementsByTag("td");
-							for (int i = 0; i < tableEntries.size(); i += 2) {
-								Element entry = tableEntries.get(i);
-								if (entry.text().startsWith("Abwesende Lehrer"))
-									dto.setAbsenceTeachers(tableEntries.get(i + 1).text());
-								else if (entry.text().startsWith("Blockierte Räume"))
-									dto.setBlockedRooms(tableEntries.get(i + 1).text());
-								else if (entry.text().startsWith("Betroffene Klassen"))
-									dto.setAffectedClasses(tableEntries.get(i + 1).text());
-								else if (entry.text().startsWith("Betroffene Räume"))
-									dto.setAffectedRooms(tableEntries.get(i + 1).text());
-								else if (entry.text().startsWith("Abwesende Klassen"))
-									dto.setAbsenceClasses(tableEntries.get(i + 1).text());
-								else dto.setMessages(entry.text());
-							}
-
-							//Update substitute message of current day to the controller
-							if (substituteMessageController != null) {
-								this.substituteMessageController.clearSubstituteMessages(currentDate);
-								this.substituteMessageController.createSubstituteMessage(dto);
-								LOGGER.trace("[SUBSTITUTE] Updated substitute message");
-							} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write substitute messages to database");
-						}
-					} else {
-						//Update the current date
-						Elements days = paragraph.getElementsByTag("b");
-						if (!days.isEmpty()) {
-							rawDate = days.get(0).text();
-							dayAndMonth = rawDate.substring(0, rawDate.lastIndexOf('.'));
-							currentDate = this.parseDate(dayAndMonth, weeks.get(week));
-							LOGGER.trace("[SUBSTITUTE] Switching to new date: " + dayAndMonth + "." + weeks.get(week));
-						}
-					}
+			List<SubstituteDay> days = new ArrayList<>();
+			for (Future<List<SubstituteDay>> fetchedWeek : fetchedWeeks) {
+				try {
+					days.addAll(fetchedWeek.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception)
+						this.logExpectedError("[SUBSTITUTE] Couldn't fetch week", (Exception) e.getCause(), LOGGER);
+					else throw (Error) e.getCause();
 				}
+			}
 
+			//Persist sequentially ordered by date
+			days.sort(Comparator.comparing(SubstituteDay::getDate));
+			try {
+				for (SubstituteDay day : days) count += this.persistDay(day);
+			} catch (RuntimeException e) {
+				//Nothing is committed, so all changed weeks and days are fetched and written again by the next job
+				this.discard();
+				throw e;
+			}
+			this.commit();
+			if (count > 0 && this.substituteController != null) {
+				this.substituteController.rebuildIndex();
+				this.substituteController.forgetPastChanges();
 			}
 
+			//Fingerprints of past days are not needed anymore
+			String today = new Date(System.currentTimeMillis()).toString();
+			this.forgetFingerprints(key -> isPastDay(key, today));
+
 			if (count > 0) LOGGER.info("[SUBSTITUTE] Fetched " + count);
 			else LOGGER.debug("[SUBSTITUTE] Not changed");
-		} catch (IOException | ParseException e) {
+		} catch (IOException e) {
 			this.logExpectedError("[SUBSTITUTE] Couldn't fetch", e, LOGGER);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.logExpectedError("[SUBSTITUTE] Interrupted while fetching", e, LOGGER);
 		}
 	}
 
 	/**
-	 * Function to create a substitute dto out of a html row.
+	 * Check if a fingerprint key belongs to a day before today.
 	 *
-	 * @param row         with substitute information
-	 * @param currentDate current date to assign to substitute
-	 * @return substitute dto
+	 * @param key   of fingerprint, e.g. "substitutes.2023-09-11"
+	 * @param today formatted like {@link Date#toString()}
+	 * @return true if the key is of a past day, false for other keys like "substitutes.37"
 	 */
-	private List<SubstituteDTO> createSubstituteDTOs(Element row, Date currentDate) {
-		List<SubstituteDTO> dtos = new ArrayList<>();
-		SubstituteDTO dto = new SubstituteDTO();
-		dto.setDate(currentDate);
-		if (row.child(0).text().matches("(.*)[0-9](.*)")) dto.setClassName(row.child(0).text());
-		String lessons = row.child(1).text().replace(" ", "");
-		if (lessons.contains("-")) { //5 - 6, //3 - 6
-			int low = Integer.parseInt(lessons.substring(0, lessons.indexOf("-"))),
-					high = Integer.parseInt(lessons.substring(lessons.indexOf("-") + 1));
+	private static boolean isPastDay(String key, String today) {
+		String day = key.substring(key.indexOf('.') + 1);
 
-			for (int i = low; i < high; i++) {
-				row.children().set(1, row.child(1).text(String.valueOf(i)));
-				dtos.addAll(this.createSubstituteDTOs(row, currentDate));
-			}
-
-			dto.setLesson(high);
-		} else dto.setLesson(Integer.parseInt(lessons));
-		if (row.child(2).text().matches("(.*)[0-9](.*)")) dto.setSubject(row.child(2).text());
-		if (row.child(3).text().matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")) dto.setSubstituteTeacher(row.child(3).text());
-		if (row.child(4).text().matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")) dto.setTeacher(row.child(4).text());
-		dto.setType(row.child(5).text());
-		if (row.child(6).text().matches("(.*)[0-9](.*)")) dto.setSubstituteOf(row.child(6).text());
-		if (!row.child(7).text().equals("---")) dto.setRoom(row.child(7).text());
-		if (!row.child(8).text().matches("\\h")) dto.setText(row.child(8).text());
+		return day.length() == today.length() && day.compareTo(today) < 0;
+	}
 
-		dtos.add(dto);
-		return dtos;
+	@Override
+	protected boolean isPersistent(String key) {
+		return key.startsWith("substitutes.") || key.startsWith("messages.");
 	}
 
 	/**
-	 * Private function to call if a row has no information except the text in the end which is used, to extend the writable.
-	 * text of substitutes
+	 * Download and parse the substitutes of a week.
+	 * Called concurrently for all weeks, so nothing is persisted here.
 	 *
-	 * @param row         which is empty except the text in the end
-	 * @param substitutes List of dtos to get the last one and append the text in the given row
+	 * @param week of year
+	 * @param year of week
+	 * @return parsed days in order of the page or an empty list if the week did not change
+	 * @throws IOException    if the week couldn't be fetched
+	 * @throws ParseException if the page couldn't be parsed
 	 */
-	private void appendTextOnLastSubstitute(Element row, List<SubstituteDTO> substitutes) {
-		int indexOfLastSubstitute = substitutes.size() - 1;
-		String textToAppend = row.children().get(row.children().size() - 1).text();
-		SubstituteDTO dto = substitutes.get(indexOfLastSubstitute);
+	private List<SubstituteDay> fetchWeek(int week, int year) throws IOException, ParseException {
+		String convertedWeek = String.valueOf(week);
+		if (convertedWeek.length() == 1) convertedWeek = "0" + convertedWeek;
+		String requestUrl = "https://engelsburg.smmp.de/vertretungsplaene/eng/Stp_Upload/" + convertedWeek + "/w/w00000.htm";
+		String key = "substitutes." + week;
+		FetchingClient.Response response = this.fetchIfChanged(requestUrl, key);
+		LOGGER.trace("[SUBSTITUTE] Requested substitutes of week " + week);
+
+		//If substitutes have not changed skip the week, the page is only parsed on changes
+		SubstituteDayCollector collector = new SubstituteDayCollector(year);
+		boolean parsed;
+		try {
+			parsed = response != null && PAGE_PARSER.parse(response.getBody(), response.charset(), requestUrl, collector);
+		} catch (IOException | ParseException | RuntimeException e) {
+			//Other weeks are committed, this one has to be fetched and parsed again
+			this.discard(requestUrl);
+			this.discardFingerprint(key);
+			throw e;
+		}
+		if (!parsed) {
+			LOGGER.trace("[SUBSTITUTE] Substitutes of week " + week + " did not change");
+			return Collections.emptyList();
+		}
 
-		substitutes.set(indexOfLastSubstitute, dto.appendText(textToAppend));
+		List<SubstituteDay> days = collector.getDays();
+		LOGGER.trace("[SUBSTITUTE] Parsed days of week " + week + ": " + days.size());
+		return days;
 	}
 
 	/**
-	 * Private function to parse a String with day and month and a year into a {@link Date}.
+	 * Persist the parsed substitutes and substitute message of a day.
+	 * Each is fingerprinted on its own, so only what actually changed since the last write is written.
 	 *
-	 * @param dayAndMonth to parse
-	 * @param year        to parse
-	 * @return parsed Date
-	 * @throws ParseException if something goes wrong while parsing the date
+	 * @param day to persist
+	 * @return count of persisted substitutes
 	 */
-	private Date parseDate(String dayAndMonth, int year) throws ParseException {
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd.MM.yyyy");
+	private int persistDay(SubstituteDay day) {
+		//Update substitute message of current day to the controller
+		if (day.getMessage() != null && this.checkChanges(day.getMessage(), "messages." + day.getDate())) {
+			if (this.substituteMessageController != null) {
+				this.substituteMessageController.clearSubstituteMessages(day.getDate());
+				this.substituteMessageController.createSubstituteMessage(day.getMessage());
+				LOGGER.trace("[SUBSTITUTE] Updated substitute message");
+			} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write substitute messages to database");
+		}
+
+		//Update all substitutes of the day to the controller
+		if (day.getSubstitutes().isEmpty()) return 0;
+		if (!this.checkChanges(day.getSubstitutes(), "substitutes." + day.getDate())) {
+			LOGGER.trace("[SUBSTITUTE] Substitutes of " + day.getDate() + " did not change");
+			return 0;
+		}
+		if (this.substituteController != null) {
+			this.substituteController.updateSubstitutes(day.getSubstitutes(), day.getDate());
+		} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write substitutes to database");
+
+		LOGGER.trace("[SUBSTITUTE] Updated substitutes: " + day.getSubstitutes().size());
+		return day.getSubstitutes().size();
+	}
 
-		return new Date(simpleDateFormat.parse(dayAndMonth + "." + year).getTime());
+	/**
+	 * Parse the weeks and classes of the navbar.
+	 *
+	 * @param navbar to parse
+	 */
+	private void parseNavbar(Document navbar) {
+		Map<Integer, Integer> weeks = new HashMap<>(); //Week of year, Year
+
+		//e.g.
+		// <select name="week" class="selectbox" ...>
+		//   <option value="37">11.9.2023</option>
+		//   <option value="38">18.9.2023</option>
+		// </select>
+		String cssQuery = "select[name=week].selectBox > option";
+		for (Element element : navbar.select(cssQuery)) {
+			//e.g. <option value="37">11.9.2023</option>
+			int weekOfYear = Integer.parseInt(element.attr("value")); //e.g. 37
+			int year = Integer.parseInt(element.text().substring(element.text().lastIndexOf('.') + 1)); //e.g. 2023
+
+			weeks.put(weekOfYear, year);
+		}
+		LOGGER.trace("[SUBSTITUTE] Parsed weeks: " + weeks.keySet());
+		this.weeks.clear();
+		this.weeks.putAll(weeks);
+
+		//e.g. var classes = ["5a","5b","5c",...,"Q4"];
+		String startIdentifier = "var classes = [";
+		String endIdentifier = "];";
+		int startClasses = navbar.html().indexOf(startIdentifier);
+		int endClasses = navbar.html().indexOf(endIdentifier);
+
+		// --> school might have changed the declaration of the classes
+		if (startClasses >= 0 && endClasses > startClasses) {
+			//Extract classes and check for changes, if changed update to informationController
+			String rawClasses = navbar.html().substring(startClasses, endClasses);
+			if (this.checkChanges(rawClasses, "classes")) {
+				rawClasses = rawClasses
+						.replace(startIdentifier, "")
+						.replace(endIdentifier, "")
+						.replaceAll("\"", "");
+
+				//Update current classes
+				if (informationController != null) {
+					this.informationController.setCurrentClasses(rawClasses.split(","));
+					LOGGER.trace("[SUBSTITUTE] Updated classes");
+				} else LOGGER.warn("[SUBSTITUTE] DRY RUN! Did not write classes to database");
+			} else LOGGER.trace("[SUBSTITUTE] Classes did not change");
+		}
 	}
 
 }
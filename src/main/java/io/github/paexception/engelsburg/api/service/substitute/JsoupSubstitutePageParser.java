@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine parsing the whole page into a Jsoup {@link Document} and walking the #vertretung block.
+ * <p>
+ * e.g.
+ * <pre>
+ *  1 &lt;div id="vertretung"&gt;
+ *  2   &lt;a name="1"&gt;&amp;nbsp;&lt;/a&gt;
+ *  3   &lt;br&gt;
+ *  4   &lt;b&gt;11.9. Montag&lt;/b&gt;
+ *  5   &lt;a href="#2"&gt;[ Dienstag ]&lt;/a&gt;
+ *  6   ...
+ *  7   &lt;p&gt;
+ *  8     &lt;table class="subst"&gt;...&lt;/table&gt;
+ *  9   &lt;/p&gt;
+ * 10   &lt;p&gt;
+ * 11     &lt;a name="2"&gt;&amp;nbsp;&lt;/a&gt;
+ * 12     &lt;br&gt;
+ * 13     &lt;a href="#1"&gt;[ Montag ]&lt;/a&gt;
+ * 14     &lt;b&gt;12.9. Dienstag&lt;/b&gt;
+ * 15     ...
+ * 16   &lt;/p&gt;
+ * 17   &lt;p&gt;
+ * 18     &lt;table ...&gt;...&lt;/table&gt;    &lt;!-- substitute messages
+ * 19   &lt;/p&gt;
+ * 20   &lt;p&gt;
+ * 21     &lt;table class="subst"&gt;...&lt;/table&gt;    &lt;!-- actual substitutes
+ * 22   &lt;/p&gt;
+ * 23   ...
+ * 24 &lt;/div&gt;
+ * </pre>
+ */
+public class JsoupSubstitutePageParser implements SubstitutePageParser {
+
+	@Override
+	public boolean parse(byte[] body, @Nullable String charset, String baseUri, SubstitutePageListener listener)
+			throws IOException, ParseException {
+		Document page = Jsoup.parse(new ByteArrayInputStream(body), charset, baseUri);
+		Element substitute = page.getElementById("vertretung");
+		if (substitute == null) return false;
+
+		//Date to start with, --> [4]
+		listener.onDate(substitute.child(2).text());
+
+		SubstituteRowTokenizer tokenizer = new SubstituteRowTokenizer();
+		for (Element paragraph : substitute.children()) {
+			if ((!paragraph.tagName().equals("p") && !paragraph.tagName().equals("table")) || paragraph.children().isEmpty()) continue;
+
+			//If the tagName is not equal to "table", there will be information about the current date, --> [14]
+			if (paragraph.tagName().equals("table")) {
+				//If table has class "subst" then it will contain the actual substitutes
+				//Otherwise it will contain the substitute messages
+				// --> [18], --> [21]
+				if (paragraph.hasClass("subst")) {
+					// <table class="subst">
+					//   <tbody>
+					//     <tr class="list">...</tr>    <!-- Header
+					//     <tr class="list odd">
+					//       <td ...><b>8e</b></td>
+					//       <td ...>1-13</td>
+					//       ...
+					//     </tr>
+					//     <tr class="list even">...</tr>
+					//   </tbody>
+					// </table>
+					listener.onSubstituteTableStart();
+					for (Element row : paragraph.child(0).children()) {
+						//Skip header of row
+						if (!row.hasClass("odd") && !row.hasClass("even")) continue;
+
+						tokenizer.reset();
+						for (Element cell : row.children()) tokenizer.add(cell.text());
+						listener.onSubstituteRow(tokenizer);
+					}
+					listener.onSubstituteTableEnd();
+				} else {
+					Elements tableEntries = paragraph.getElementsByTag("td");
+					List<String> entries = new ArrayList<>(tableEntries.size());
+					for (Element entry : tableEntries) entries.add(entry.text());
+					listener.onMessageTable(entries);
+				}
+			} else {
+				//Update the current date
+				Elements days = paragraph.getElementsByTag("b");
+				if (!days.isEmpty()) listener.onDate(days.get(0).text());
+			}
+		}
+
+		return true;
+	}
+
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import org.jsoup.parser.Parser;
+import javax.annotation.Nullable;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Engine scanning the tags of the page without building a document.
+ * Only the #vertretung block is tokenized and only the text of date headers and table cells is kept,
+ * everything after the block is not scanned at all.
+ * <p>
+ * The text of date headers and cells is normalized like {@link org.jsoup.nodes.Element#text()},
+ * so both engines produce the same substitutes.
+ */
+public class StreamingSubstitutePageParser implements SubstitutePageParser {
+
+	private static final String[] TAGS = {"div", "table", "tr", "td", "th", "b", "br", "script", "style", "title",
+			"textarea", "p", "tbody", "thead", "tfoot", "caption", "ul", "ol", "li", "dl", "dt", "dd", "h1", "h2", "h3",
+			"h4", "h5", "h6", "pre", "blockquote", "hr", "center", "address", "form", "fieldset", "ins", "del"};
+	private static final Set<String> RAW_TEXT = Set.of("script", "style", "title", "textarea");
+	private static final String[] ENTITIES = {"nbsp", "\u00A0", "amp", "&", "lt", "<", "gt", ">", "quot", "\"", "shy", "\u00AD"};
+
+	/**
+	 * Get the charset of a page like Jsoup does.
+	 * Uses the given charset, the byte order mark or the charset declared in the head of the page, UTF-8 otherwise.
+	 *
+	 * @param body    raw body of page
+	 * @param charset of response, might be null
+	 * @return charset to decode the page with
+	 */
+	static Charset charset(byte[] body, @Nullable String charset) {
+		if (charset != null && isSupported(charset)) return Charset.forName(charset);
+		if (body.length >= 2 && (body[0] & 0xFF) == 0xFE && (body[1] & 0xFF) == 0xFF) return StandardCharsets.UTF_16BE;
+		if (body.length >= 2 && (body[0] & 0xFF) == 0xFF && (body[1] & 0xFF) == 0xFE) return StandardCharsets.UTF_16LE;
+
+		//e.g. <meta http-equiv="Content-Type" content="text/html; charset=iso-8859-1">
+		String head = new String(body, 0, Math.min(body.length, 4096), StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+		int index = head.indexOf("charset=");
+		if (index >= 0) {
+			int start = index + 8;
+			while (start < head.length() && (head.charAt(start) == '"' || head.charAt(start) == '\'')) start++;
+			int end = start;
+			while (end < head.length() && (Character.isLetterOrDigit(head.charAt(end)) || "-_:.".indexOf(head.charAt(end)) >= 0))
+				end++;
+
+			String declared = head.substring(start, end);
+			if (isSupported(declared)) return Charset.forName(declared);
+		}
+
+		return StandardCharsets.UTF_8;
+	}
+
+	private static boolean isSupported(String charset) {
+		try {
+			return !charset.isEmpty() && Charset.isSupported(charset);
+		} catch (IllegalCharsetNameException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean parse(byte[] body, @Nullable String charset, String baseUri, SubstitutePageListener listener)
+			throws ParseException {
+		Charset decoding = charset(body, charset);
+		int bom = decoding.equals(StandardCharsets.UTF_8) && body.length >= 3 && (body[0] & 0xFF) == 0xEF
+				&& (body[1] & 0xFF) == 0xBB && (body[2] & 0xFF) == 0xBF ? 3 : 0;
+
+		return new Scanner(new String(body, bom, body.length - bom, decoding), listener).scan();
+	}
+
+	/**
+	 * State of a single scan.
+	 */
+	private static final class Scanner {
+
+		private final String html;
+		private final SubstitutePageListener listener;
+		private final SubstituteRowTokenizer tokenizer = new SubstituteRowTokenizer();
+		private final StringBuilder text = new StringBuilder();
+		private List<String> entries;
+		private int pos;
+		private int divDepth;
+		private int tableDepth;
+		private boolean found;
+		private boolean substTable;
+		private boolean row;
+		private boolean cell;
+		private boolean date;
+		private int idStart;
+		private int idEnd;
+		private int classStart;
+		private int classEnd;
+
+		private Scanner(String html, SubstitutePageListener listener) {
+			this.html = html;
+			this.listener = listener;
+		}
+
+		private static boolean isWhitespace(char c) {
+			return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+		}
+
+		/**
+		 * Scan the page.
+		 *
+		 * @return false if the page has no #vertretung block
+		 * @throws ParseException if the listener couldn't handle the content
+		 */
+		private boolean scan() throws ParseException {
+			int length = this.html.length();
+			while (this.pos < length) {
+				int tag = this.html.indexOf('<', this.pos);
+				if (tag < 0) tag = length;
+				if (this.isCapturing() && tag > this.pos) this.appendText(this.pos, tag);
+				this.pos = tag;
+
+				if (tag < length && !this.tag()) { //Not a tag, e.g. "a < b"
+					if (this.isCapturing()) this.appendText(tag, tag + 1);
+					this.pos = tag + 1;
+				}
+				if (this.found && this.divDepth == 0) return true; //End of #vertretung
+			}
+			if (this.found) this.closeTable();
+
+			return this.found;
+		}
+
+		private boolean isCapturing() {
+			return this.date || this.cell;
+		}
+
+		/**
+		 * Consume the tag at the current position.
+		 *
+		 * @return false if the '&lt;' does not start a tag
+		 * @throws ParseException if the listener couldn't handle the content
+		 */
+		private boolean tag() throws ParseException {
+			int length = this.html.length();
+			char next = this.pos + 1 < length ? this.html.charAt(this.pos + 1) : 0;
+
+			if (next == '!' || next == '?') { //Comment, doctype or processing instruction
+				if (this.html.startsWith("<!--", this.pos)) {
+					int end = this.html.indexOf("-->", this.pos + 4);
+					this.pos = end < 0 ? length : end + 3;
+				} else this.skipTag(this.pos + 2);
+				return true;
+			}
+
+			boolean end = next == '/';
+			int nameStart = this.pos + (end ? 2 : 1);
+			if (nameStart >= length || !Character.isLetter(this.html.charAt(nameStart))) {
+				if (!end) return false;
+
+				this.skipTag(nameStart); //Bogus end tag, e.g. "</ >"
+				return true;
+			}
+
+			int nameEnd = nameStart;
+			while (nameEnd < length) {
+				char c = this.html.charAt(nameEnd);
+				if (isWhitespace(c) || c == '/' || c == '>') break;
+				nameEnd++;
+			}
+			String name = this.name(nameStart, nameEnd);
+
+			if (end) {
+				this.skipTag(nameEnd);
+				if (name != null) this.endTag(name);
+			} else {
+				this.attributes(nameEnd);
+				if (name != null) this.startTag(name);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Get a known tag name.
+		 *
+		 * @param start of name
+		 * @param end   after name
+		 * @return name as lower case constant, null if not needed by the scan
+		 */
+		@Nullable
+		private String name(int start, int end) {
+			for (String tag : TAGS) {
+				if (tag.length() == end - start && this.html.regionMatches(true, start, tag, 0, tag.length()))
+					return tag;
+			}
+
+			return null;
+		}
+
+		private void skipTag(int from) {
+			int end = this.html.indexOf('>', from);
+			this.pos = end < 0 ? this.html.length() : end + 1;
+		}
+
+		/**
+		 * Consume the attributes of a start tag and remember the ranges of its id and class.
+		 *
+		 * @param from position after tag name
+		 */
+		private void attributes(int from) {
+			int length = this.html.length(), i = from;
+			this.idStart = this.idEnd = this.classStart = this.classEnd = -1;
+
+			while (i < length) {
+				char c = this.html.charAt(i);
+				if (c == '>') break;
+				if (isWhitespace(c) || c == '/') {
+					i++;
+					continue;
+				}
+
+				int nameStart = i;
+				do i++;
+				while (i < length && !isWhitespace(c = this.html.charAt(i)) && c != '/' && c != '>' && c != '=');
+				int nameEnd = i;
+				while (i < length && isWhitespace(this.html.charAt(i))) i++;
+
+				int valueStart = -1, valueEnd = -1;
+				if (i < length && this.html.charAt(i) == '=') {
+					i++;
+					while (i < length && isWhitespace(this.html.charAt(i))) i++;
+					if (i < length && (this.html.charAt(i) == '"' || this.html.charAt(i) == '\'')) {
+						int quote = this.html.indexOf(this.html.charAt(i), i + 1);
+						valueStart = i + 1;
+						valueEnd = quote < 0 ? length : quote;
+						i = valueEnd + 1;
+					} else {
+						valueStart = i;
+						while (i < length && !isWhitespace(c = this.html.charAt(i)) && c != '>') i++;
+						valueEnd = i;
+					}
+				}
+
+				if (nameEnd - nameStart == 2 && this.html.regionMatches(true, nameStart, "id", 0, 2)) {
+					this.idStart = valueStart;
+					this.idEnd = valueEnd;
+				} else if (nameEnd - nameStart == 5 && this.html.regionMatches(true, nameStart, "class", 0, 5)) {
+					this.classStart = valueStart;
+					this.classEnd = valueEnd;
+				}
+			}
+
+			this.pos = Math.min(i + 1, length);
+		}
+
+		/**
+		 * Check if the last start tag has a class, case-insensitive like {@link org.jsoup.nodes.Element#hasClass(String)}.
+		 *
+		 * @param name of class
+		 * @return true if the class attribute contains the class
+		 */
+		private boolean hasClass(String name) {
+			int i = this.classStart;
+			while (i >= 0 && i < this.classEnd) {
+				while (i < this.classEnd && isWhitespace(this.html.charAt(i))) i++;
+				int start = i;
+				while (i < this.classEnd && !isWhitespace(this.html.charAt(i))) i++;
+				if (i - start == name.length() && this.html.regionMatches(true, start, name, 0, name.length())) return true;
+			}
+
+			return false;
+		}
+
+		private void startTag(String name) throws ParseException {
+			if (RAW_TEXT.contains(name)) { //Skip content, it might contain '<'
+				this.skipRawText(name);
+				return;
+			}
+
+			if (this.divDepth == 0) {
+				if (!this.found && name.equals("div") && this.idEnd - this.idStart == 10
+						&& this.html.startsWith("vertretung", this.idStart)) {
+					this.found = true;
+					this.divDepth = 1;
+				}
+				return;
+			}
+
+			if (this.isCapturing() && !name.equals("b")) this.space(); //Block elements and line breaks
+			switch (name) {
+				case "div":
+					this.divDepth++;
+					break;
+				case "table":
+					if (this.date) this.finishDate();
+					if (this.tableDepth++ > 0) break;
+
+					this.substTable = this.hasClass("subst");
+					if (this.substTable) this.listener.onSubstituteTableStart();
+					else this.entries = new ArrayList<>();
+					break;
+				case "tr":
+					if (this.tableDepth != 1) break;
+
+					this.finishCell();
+					this.finishRow();
+					if (this.substTable && (this.hasClass("odd") || this.hasClass("even"))) {
+						this.row = true;
+						this.tokenizer.reset();
+					}
+					break;
+				case "td":
+				case "th":
+					if (this.substTable ? this.tableDepth == 1 && this.row : name.equals("td") && this.tableDepth > 0) {
+						this.finishCell();
+						this.cell = true;
+						this.text.setLength(0);
+					}
+					break;
+				case "b":
+					if (this.tableDepth == 0 && !this.date) {
+						this.date = true;
+						this.text.setLength(0);
+					}
+					break;
+				default:
+					break;
+			}
+		}
+
+		private void endTag(String name) throws ParseException {
+			if (this.divDepth == 0) return;
+
+			if (this.isCapturing() && !name.equals("b") && !name.equals("br")) this.space(); //Block elements
+			switch (name) {
+				case "div":
+					if (--this.divDepth == 0) this.closeTable();
+					break;
+				case "table":
+					if (this.tableDepth > 0 && --this.tableDepth == 0) this.closeTable();
+					break;
+				case "tr":
+					if (this.tableDepth != 1) break;
+
+					this.finishCell();
+					this.finishRow();
+					break;
+				case "td":
+				case "th":
+					if (this.substTable ? this.tableDepth == 1 : name.equals("td")) this.finishCell();
+					break;
+				case "b":
+					if (this.date) this.finishDate();
+					break;
+				default:
+					break;
+			}
+		}
+
+		private void skipRawText(String name) {
+			int i = this.pos;
+			while ((i = this.html.indexOf("</", i)) >= 0) {
+				if (this.html.regionMatches(true, i + 2, name, 0, name.length())) {
+					this.pos = i;
+					return;
+				}
+				i += 2;
+			}
+			this.pos = this.html.length();
+		}
+
+		/**
+		 * Append the text between two positions like {@link org.jsoup.nodes.TextNode}s are appended by
+		 * {@link org.jsoup.nodes.Element#text()}: entities are decoded, whitespace is collapsed and invisible
+		 * chars are dropped.
+		 * Common entities are decoded in place, anything else is left to {@link Parser#unescapeEntities(String, boolean)}.
+		 *
+		 * @param start of text
+		 * @param end   after text
+		 */
+		private void appendText(int start, int end) {
+			int from = start;
+			for (int i = this.html.indexOf('&', from); i >= 0 && i < end; i = this.html.indexOf('&', from)) {
+				int semicolon = this.html.indexOf(';', i);
+				String decoded = semicolon > i + 1 && semicolon < end ? this.entity(i + 1, semicolon) : null;
+				if (decoded == null) { //e.g. "&auml;" or "&nbsp" without semicolon
+					String rest = Parser.unescapeEntities(this.html.substring(from, end), false);
+					this.appendNormalised(rest, 0, rest.length());
+					return;
+				}
+
+				this.appendNormalised(this.html, from, i);
+				this.appendNormalised(decoded, 0, decoded.length());
+				from = semicolon + 1;
+			}
+			this.appendNormalised(this.html, from, end);
+		}
+
+		/**
+		 * Decode a common entity.
+		 *
+		 * @param start of entity name after '&amp;'
+		 * @param end   of entity name at ';'
+		 * @return decoded entity, null if not common
+		 */
+		@Nullable
+		private String entity(int start, int end) {
+			if (this.html.charAt(start) == '#') {
+				boolean hex = end > start + 1 && (this.html.charAt(start + 1) == 'x' || this.html.charAt(start + 1) == 'X');
+				int codePoint = 0;
+				for (int i = start + (hex ? 2 : 1); i < end; i++) {
+					int digit = Character.digit(this.html.charAt(i), hex ? 16 : 10);
+					if (digit < 0 || codePoint > 0xFFFF) return null;
+					codePoint = codePoint * (hex ? 16 : 10) + digit;
+				}
+
+				//Invalid and windows-1252 replaced code points are left to jsoup
+				if (codePoint < 0x20 || (codePoint >= 0x7F && codePoint <= 0x9F) || Character.isSurrogate((char) codePoint)
+						|| codePoint > 0xFFFF) return null;
+				return String.valueOf((char) codePoint);
+			}
+
+			for (int i = 0; i < ENTITIES.length; i += 2) {
+				if (ENTITIES[i].length() == end - start && this.html.startsWith(ENTITIES[i], start)) return ENTITIES[i + 1];
+			}
+
+			return null;
+		}
+
+		private void appendNormalised(String chunk, int start, int end) {
+			boolean stripLeading = this.isLastSpace(), lastWasWhite = false, reachedNonWhite = false;
+			for (int i = start; i < end; i++) {
+				char c = chunk.charAt(i);
+				if (isWhitespace(c) || c == '\u00A0') {
+					if ((stripLeading && !reachedNonWhite) || lastWasWhite) continue;
+					this.text.append(' ');
+					lastWasWhite = true;
+				} else if (c != '\u200B' && c != '\u00AD') { //Zero width space and soft hyphen are invisible
+					this.text.append(c);
+					lastWasWhite = false;
+					reachedNonWhite = true;
+				}
+			}
+		}
+
+		private boolean isLastSpace() {
+			return this.text.length() != 0 && this.text.charAt(this.text.length() - 1) == ' ';
+		}
+
+		/**
+		 * Separate the text of block elements and line breaks by a space.
+		 */
+		private void space() {
+			if (this.text.length() > 0 && !this.isLastSpace()) this.text.append(' ');
+		}
+
+		/**
+		 * Get the captured text trimmed like {@link String#trim()}.
+		 *
+		 * @return captured text
+		 */
+		private String captured() {
+			int start = 0, end = this.text.length();
+			while (start < end && this.text.charAt(start) <= ' ') start++;
+			while (end > start && this.text.charAt(end - 1) <= ' ') end--;
+
+			return this.text.substring(start, end);
+		}
+
+		private void finishDate() throws ParseException {
+			this.date = false;
+			this.listener.onDate(this.captured());
+		}
+
+		private void finishCell() {
+			if (!this.cell) return;
+
+			this.cell = false;
+			if (this.substTable) this.tokenizer.add(this.captured());
+			else this.entries.add(this.captured());
+		}
+
+		private void finishRow() throws ParseException {
+			if (!this.row) return;
+
+			this.row = false;
+			this.listener.onSubstituteRow(this.tokenizer);
+		}
+
+		/**
+		 * Close the open top level table, if any.
+		 *
+		 * @throws ParseException if the listener couldn't handle the content
+		 */
+		private void closeTable() throws ParseException {
+			if (this.date) this.finishDate();
+			if (this.entries == null && !this.substTable) return;
+
+			this.finishCell();
+			this.finishRow();
+			this.tableDepth = 0;
+			if (this.substTable) this.listener.onSubstituteTableEnd();
+			else this.listener.onMessageTable(this.entries);
+			this.substTable = false;
+			this.entries = null;
+		}
+
+	}
+
+}
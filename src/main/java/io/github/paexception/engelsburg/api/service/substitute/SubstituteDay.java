@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.request.CreateSubstituteMessageRequestDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed substitutes and substitute message of a single day.
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class SubstituteDay {
+
+	private final Date date;
+	private List<SubstituteDTO> substitutes = new ArrayList<>();
+	private CreateSubstituteMessageRequestDTO message;
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.request.CreateSubstituteMessageRequestDTO;
+import lombok.RequiredArgsConstructor;
+import java.sql.Date;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the events of a substitute page into {@link SubstituteDay}s.
+ * Used by both engines, so both produce the same substitutes.
+ */
+@RequiredArgsConstructor
+public class SubstituteDayCollector implements SubstitutePageListener {
+
+	private final int year;
+	private final Map<Date, SubstituteDay> days = new LinkedHashMap<>();
+	private Date currentDate;
+	private List<SubstituteDTO> substitutes;
+	private int splitSubstitute;
+
+	/**
+	 * Parse a String with day and month and a year into a {@link Date}.
+	 *
+	 * @param dayAndMonth to parse
+	 * @param year        to parse
+	 * @return parsed Date
+	 * @throws ParseException if something goes wrong while parsing the date
+	 */
+	private static Date parseDate(String dayAndMonth, int year) throws ParseException {
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd.MM.yyyy");
+
+		return new Date(simpleDateFormat.parse(dayAndMonth + "." + year).getTime());
+	}
+
+	/**
+	 * Get the collected days.
+	 *
+	 * @return days in order of the page
+	 */
+	public List<SubstituteDay> getDays() {
+		return new ArrayList<>(this.days.values());
+	}
+
+	@Override
+	public void onDate(String rawDate) throws ParseException {
+		int end = rawDate.lastIndexOf('.'); //e.g. 12.9. Dienstag
+		if (end < 0) throw new ParseException("Invalid date: " + rawDate, 0);
+
+		this.currentDate = parseDate(rawDate.substring(0, end), this.year);
+	}
+
+	@Override
+	public void onSubstituteTableStart() {
+		this.substitutes = new ArrayList<>();
+		this.splitSubstitute = 0;
+	}
+
+	@Override
+	public void onSubstituteRow(SubstituteRowTokenizer row) throws ParseException {
+		if (this.currentDate == null) throw new ParseException("Substitutes without date", 0);
+
+		//If the row does not contain a className then this row is used to extend the text from
+		// the previous substitute, so it needs to be added to the latest substitute
+		if (!this.substitutes.isEmpty() && row.isContinuation()) {
+			int last = this.substitutes.size() - 1;
+			this.substitutes.set(last, this.substitutes.get(last).appendText(row.lastCell()));
+			String appendedText = this.substitutes.get(last).getText();
+
+			//There is also a possibility that the previous substitute will go over more than
+			// one hour, in this case every single one needs to be updated
+			for (int i = 1; i <= this.splitSubstitute; i++) this.substitutes.get(last - i).setText(appendedText);
+		} else {
+			//If more than one substitute is added it must have been split
+			this.splitSubstitute = row.tokenize(this.currentDate, this.substitutes) - 1;
+		}
+	}
+
+	@Override
+	public void onSubstituteTableEnd() {
+		//After cycling through the table assign all substitutes to the current day
+		if (!this.substitutes.isEmpty())
+			this.days.computeIfAbsent(this.currentDate, SubstituteDay::new).setSubstitutes(this.substitutes);
+	}
+
+	@Override
+	public void onMessageTable(List<String> entries) throws ParseException {
+		if (this.currentDate == null) throw new ParseException("Substitute message without date", 0);
+
+		CreateSubstituteMessageRequestDTO dto = new CreateSubstituteMessageRequestDTO();
+		dto.setDate(this.currentDate);
+		for (int i = 0; i < entries.size(); i += 2) {
+			String entry = entries.get(i);
+			if (entry.startsWith("Abwesende Lehrer")) dto.setAbsenceTeachers(entries.get(i + 1));
+			else if (entry.startsWith("Blockierte Räume")) dto.setBlockedRooms(entries.get(i + 1));
+			else if (entry.startsWith("Betroffene Klassen")) dto.setAffectedClasses(entries.get(i + 1));
+			else if (entry.startsWith("Betroffene Räume")) dto.setAffectedRooms(entries.get(i + 1));
+			else if (entry.startsWith("Abwesende Klassen")) dto.setAbsenceClasses(entries.get(i + 1));
+			else dto.setMessages(entry);
+		}
+
+		//Assign substitute message to the current day
+		this.days.computeIfAbsent(this.currentDate, SubstituteDay::new).setMessage(dto);
+	}
+
+}
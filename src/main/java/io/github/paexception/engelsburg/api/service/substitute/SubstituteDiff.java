@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import java.sql.Date;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Difference between the stored substitutes of a day and the fetched ones.
+ * Rows are matched by their base key (see {@link SubstituteDTO#sameBase(SubstituteDTO)}), so only rows which
+ * actually changed have to be written and unchanged rows keep their ids.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SubstituteDiff {
+
+	private final List<SubstituteModel> inserts = new ArrayList<>();
+	private final List<SubstituteModel> updates = new ArrayList<>();
+	private final List<SubstituteModel> deletes = new ArrayList<>();
+	private final List<SubstituteDTO> created = new ArrayList<>();
+	private final List<SubstituteDTO> updated = new ArrayList<>();
+
+	/**
+	 * Compute the difference in linear time.
+	 * Stored rows are indexed by their value and by their base key, so every fetched substitute is matched by hash
+	 * lookups instead of comparing it with all stored rows.
+	 * Fetched substitutes whose base key is not stored yet are classified as created, fetched substitutes
+	 * whose base key is stored but which differ from all stored rows are classified as updated.
+	 *
+	 * @param stored  substitutes of the day, modified in place if updated
+	 * @param fetched substitutes of the day
+	 * @param toModel converts a fetched substitute into a model as it would be stored
+	 * @return difference
+	 */
+	public static SubstituteDiff of(List<SubstituteModel> stored, List<SubstituteDTO> fetched,
+			Function<SubstituteDTO, SubstituteModel> toModel) {
+		SubstituteDiff diff = new SubstituteDiff();
+
+		List<Stored> rows = new ArrayList<>(stored.size());
+		Map<SubstituteDTO, Deque<Stored>> byValue = new HashMap<>();
+		Map<BaseKey, Deque<Stored>> byBase = new HashMap<>();
+		for (SubstituteModel model : stored) {
+			Stored row = new Stored(model, model.toResponseDTO());
+			rows.add(row);
+			byValue.computeIfAbsent(row.dto, dto -> new ArrayDeque<>()).add(row);
+			byBase.computeIfAbsent(BaseKey.of(row.dto), key -> new ArrayDeque<>()).add(row);
+		}
+
+		//Equal rows are matched first, so duplicate base keys don't cause needless updates
+		List<SubstituteModel> changed = new ArrayList<>();
+		List<BaseKey> changedKeys = new ArrayList<>();
+		for (SubstituteDTO dto : fetched) {
+			SubstituteModel model = toModel.apply(dto);
+			SubstituteDTO normalized = model.toResponseDTO();
+			Deque<Stored> equal = byValue.get(normalized);
+			if (equal != null && !equal.isEmpty()) {
+				equal.poll().matched = true;
+				continue;
+			}
+
+			BaseKey key = BaseKey.of(normalized);
+			changed.add(model);
+			changedKeys.add(key);
+			if (equal != null) continue; //Duplicate of an unchanged row, nothing to notify
+
+			if (byBase.containsKey(key)) diff.updated.add(dto);
+			else diff.created.add(dto);
+		}
+
+		//Changed rows reuse a stored row of the same base key if left, otherwise they are inserted
+		for (int i = 0; i < changed.size(); i++) {
+			Stored target = poll(byBase.get(changedKeys.get(i)));
+			if (target != null) {
+				copy(changed.get(i), target.model);
+				diff.updates.add(target.model);
+			} else diff.inserts.add(changed.get(i));
+		}
+
+		for (Stored row : rows) if (!row.matched) diff.deletes.add(row.model);
+
+		return diff;
+	}
+
+	/**
+	 * Take the next unmatched stored row of a base key.
+	 *
+	 * @param candidates stored rows of base key, might be null
+	 * @return unmatched row or null if all are matched
+	 */
+	private static Stored poll(Deque<Stored> candidates) {
+		if (candidates == null) return null;
+
+		Stored row;
+		while ((row = candidates.poll()) != null) {
+			if (!row.matched) {
+				row.matched = true;
+				return row;
+			}
+		}
+
+		return null;
+	}
+
+	private static void copy(SubstituteModel from, SubstituteModel to) {
+		to.setDate(from.getDate());
+		to.setClassName(from.getClassName());
+		to.setLesson(from.getLesson());
+		to.setSubject(from.getSubject());
+		to.setSubstituteTeacher(from.getSubstituteTeacher());
+		to.setTeacher(from.getTeacher());
+		to.setType(from.getType());
+		to.setSubstituteOf(from.getSubstituteOf());
+		to.setRoom(from.getRoom());
+		to.setText(from.getText());
+	}
+
+	/**
+	 * Check if anything has to be written.
+	 *
+	 * @return true if there are no inserts, updates or deletes
+	 */
+	public boolean isEmpty() {
+		return this.inserts.isEmpty() && this.updates.isEmpty() && this.deletes.isEmpty();
+	}
+
+	/**
+	 * Key of a substitute, equal keys are {@link SubstituteDTO#sameBase(SubstituteDTO)}.
+	 */
+	@EqualsAndHashCode
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static final class BaseKey {
+
+		private final Date date;
+		private final int lesson;
+		private final String className;
+		private final String teacher;
+
+		/**
+		 * Get the base key of a substitute.
+		 *
+		 * @param dto substitute
+		 * @return base key
+		 */
+		private static BaseKey of(SubstituteDTO dto) {
+			//The teacher is only part of the base for E1 - Q4
+			boolean upperGrade = dto.getClassName() != null && !dto.getClassName().isEmpty()
+					&& !Character.isDigit(dto.getClassName().charAt(0));
+
+			return new BaseKey(dto.getDate(), dto.getLesson(), dto.getClassName(), upperGrade ? dto.getTeacher() : null);
+		}
+
+	}
+
+	/**
+	 * Stored row and whether a fetched substitute was matched to it.
+	 */
+	@RequiredArgsConstructor
+	private static final class Stored {
+
+		private final SubstituteModel model;
+		private final SubstituteDTO dto;
+		private boolean matched;
+
+	}
+
+}
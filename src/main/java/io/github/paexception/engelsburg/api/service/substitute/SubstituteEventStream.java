@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteChangeDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Stream of substitute changes as server-sent events.
+ * Connections are held by the servlet container asynchronously, events are only sent by a small pool of threads.
+ * Every published batch of changes is serialized once and queued as a single entry per subscriber. Subscribers
+ * whose pending bytes exceed a limit or whose oldest entry waits too long are closed and replay the missed
+ * changes on reconnect by their Last-Event-ID.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubstituteEventStream {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SubstituteEventStream.class);
+	private static final long TIMEOUT = 30 * 60 * 1000;
+	private static final long MAX_PENDING_BYTES = 1024 * 1024;
+	private static final long MAX_PENDING_MILLIS = 60 * 1000;
+	private final ObjectMapper mapper;
+	private final ExecutorService senders = Executors.newFixedThreadPool(4);
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Stop sending events.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		this.senders.shutdownNow();
+	}
+
+	/**
+	 * Subscribe to changes of substitutes.
+	 * The subscriber is registered before the missed changes are read, so no change committed in between is lost.
+	 * Changes published meanwhile are sent after the replay, unless they were part of it.
+	 *
+	 * @param classes     to filter by, might be empty
+	 * @param teachers    to filter by teacher and substitute teacher, might be empty
+	 * @param lastEventId version of the last received change, 0 if none
+	 * @param replay      to read the changes since a version by
+	 * @return emitter of events
+	 */
+	public SseEmitter subscribe(Set<String> classes, Set<String> teachers, long lastEventId,
+			LongFunction<List<SubstituteChangeDTO>> replay) {
+		SseEmitter emitter = new SseEmitter(TIMEOUT);
+		Subscriber subscriber = new Subscriber(emitter, classes, teachers);
+		emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+		emitter.onTimeout(() -> this.subscribers.remove(subscriber));
+		emitter.onError(e -> this.subscribers.remove(subscriber));
+
+		//Hold back sending until the replay is sent first
+		subscriber.sending.set(true);
+		subscriber.lastVersion = lastEventId;
+		this.subscribers.add(subscriber);
+
+		List<Message> missed = new ArrayList<>();
+		try {
+			if (lastEventId > 0) {
+				for (SubstituteChangeDTO change : replay.apply(lastEventId))
+					if (subscriber.matches(change.getSubstitute())) missed.add(this.message(change));
+			}
+		} catch (RuntimeException e) {
+			this.subscribers.remove(subscriber);
+			throw e;
+		}
+		this.senders.submit(() -> this.send(subscriber, missed));
+
+		return emitter;
+	}
+
+	/**
+	 * Publish committed changes to all subscribers they affect.
+	 * Deleted substitutes are published to all subscribers.
+	 *
+	 * @param changes to publish
+	 */
+	public void publish(List<SubstituteChangeDTO> changes) {
+		if (this.subscribers.isEmpty()) return;
+
+		List<Message> messages = new ArrayList<>(changes.size());
+		for (SubstituteChangeDTO change : changes) messages.add(this.message(change));
+
+		for (Subscriber subscriber : this.subscribers) {
+			List<Message> matching = new ArrayList<>();
+			for (Message message : messages) if (subscriber.matches(message.substitute)) matching.add(message);
+			if (!matching.isEmpty()) this.enqueue(subscriber, new Batch(matching));
+		}
+	}
+
+	/**
+	 * Send a comment to all subscribers, so idle connections are not closed by proxies.
+	 * Subscribers with pending events don't need a heartbeat, but are checked for stalling.
+	 */
+	@Scheduled(fixedRate = 15 * 1000)
+	public void heartbeat() {
+		for (Subscriber subscriber : this.subscribers) this.enqueue(subscriber, new Batch(List.of()));
+	}
+
+	/**
+	 * Serialize a change once for all subscribers.
+	 *
+	 * @param change to serialize
+	 * @return message to send
+	 */
+	private Message message(SubstituteChangeDTO change) {
+		try {
+			return new Message(change.getVersion(), change.getSubstitute(), this.mapper.writeValueAsString(change));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Enqueue a batch and start sending if not already sending.
+	 * If the subscriber can't keep up, it is closed.
+	 *
+	 * @param subscriber to send the batch to
+	 * @param batch      to send
+	 */
+	private void enqueue(Subscriber subscriber, Batch batch) {
+		Batch oldest = subscriber.queue.peek();
+		if (subscriber.pendingBytes.addAndGet(batch.bytes) > MAX_PENDING_BYTES
+				|| (oldest != null && batch.created - oldest.created > MAX_PENDING_MILLIS)) {
+			LOGGER.debug("[SUBSTITUTE] Closed slow subscriber");
+			this.close(subscriber);
+			return;
+		}
+
+		//Heartbeats are only queued if nothing else is pending
+		if (!batch.messages.isEmpty() || oldest == null) subscriber.queue.offer(batch);
+		if (subscriber.sending.compareAndSet(false, true)) this.senders.submit(() -> this.send(subscriber, List.of()));
+	}
+
+	private void close(Subscriber subscriber) {
+		this.subscribers.remove(subscriber);
+		subscriber.queue.clear();
+		subscriber.emitter.complete();
+	}
+
+	/**
+	 * Send the replay and all queued batches of a subscriber.
+	 * Changes are sent only once and in order of their versions.
+	 *
+	 * @param subscriber to send to
+	 * @param replay     changes missed before subscribing, might be empty
+	 */
+	private void send(Subscriber subscriber, List<Message> replay) {
+		try {
+			for (Message message : replay) this.send(subscriber, message);
+
+			Batch batch;
+			while ((batch = subscriber.queue.poll()) != null) {
+				subscriber.pendingBytes.addAndGet(-batch.bytes);
+				if (batch.messages.isEmpty()) subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+				for (Message message : batch.messages) this.send(subscriber, message);
+			}
+		} catch (IOException | IllegalStateException e) {
+			//Client disconnected or emitter completed
+			this.subscribers.remove(subscriber);
+			subscriber.queue.clear();
+		} finally {
+			subscriber.sending.set(false);
+		}
+
+		//Batches enqueued while finishing would otherwise wait for the next one
+		if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true))
+			this.senders.submit(() -> this.send(subscriber, List.of()));
+	}
+
+	private void send(Subscriber subscriber, Message message) throws IOException {
+		if (message.version <= subscriber.lastVersion) return;
+
+		subscriber.emitter.send(SseEmitter.event().id(String.valueOf(message.version)).name("substitute")
+				.data(message.json, MediaType.APPLICATION_JSON));
+		subscriber.lastVersion = message.version;
+	}
+
+	/**
+	 * Change serialized as JSON.
+	 */
+	@RequiredArgsConstructor
+	private static final class Message {
+
+		private final long version;
+		private final SubstituteDTO substitute;
+		private final String json;
+
+	}
+
+	/**
+	 * Changes published together, sent as consecutive events. Empty if a heartbeat.
+	 */
+	private static final class Batch {
+
+		private final List<Message> messages;
+		private final long bytes;
+		private final long created = System.currentTimeMillis();
+
+		private Batch(List<Message> messages) {
+			this.messages = messages;
+			long bytes = 0;
+			for (Message message : messages) bytes += message.json.length();
+			this.bytes = bytes;
+		}
+
+	}
+
+	/**
+	 * Connection of a client with its filters.
+	 */
+	@RequiredArgsConstructor
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Set<String> classes;
+		private final Set<String> teachers;
+		private final Queue<Batch> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicLong pendingBytes = new AtomicLong();
+		private final AtomicBoolean sending = new AtomicBoolean();
+		private volatile long lastVersion;
+
+		/**
+		 * Check if a substitute affects the subscriber, same as {@link SubstituteIndex#find(Set, Set, java.time.LocalDate)}.
+		 *
+		 * @param substitute changed, null if deleted
+		 * @return true if the change should be sent
+		 */
+		private boolean matches(SubstituteDTO substitute) {
+			if (substitute == null || (this.classes.isEmpty() && this.teachers.isEmpty())) return true;
+			if (substitute.getClassName() == null) return true;
+
+			//Classes splitting into none, like 05-10, match every filter
+			List<String> classes = SubstituteModel.splitClasses(substitute.getClassName());
+			if (classes.isEmpty()) return true;
+			for (String className : classes) if (this.classes.contains(className)) return true;
+
+			return substitute.getTeacher() != null && (this.teachers.contains(substitute.getTeacher())
+					|| (substitute.getSubstituteTeacher() != null && this.teachers.contains(substitute.getSubstituteTeacher())));
+		}
+
+	}
+
+}
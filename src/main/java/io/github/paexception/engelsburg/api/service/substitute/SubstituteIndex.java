@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable read index of future substitutes by class, teacher and substitute teacher.
+ * Class names are interned to small integers and the classes of every substitute are precomputed into a bitmask,
+ * so a class filter is compiled once per query and matched by a single AND per substitute.
+ * Built once per change and shared by all readers, so the returned substitutes must not be modified.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SubstituteIndex {
+
+	private final SubstituteDTO[] substitutes;
+	private final long[] days;
+	private final Map<String, Integer> classIds;
+	private final int words;
+	private final long[] classMasks;
+	private final BitSet unclassified;
+	private final Map<String, BitSet> byTeacher;
+
+	/**
+	 * Build an index.
+	 *
+	 * @param models       substitutes to index, order is kept by all queries
+	 * @param knownClasses current classes, interned first; classes of substitutes which are not known are added
+	 * @return built index
+	 */
+	public static SubstituteIndex of(List<SubstituteModel> models, Collection<String> knownClasses) {
+		Map<String, Integer> classIds = new HashMap<>();
+		for (String className : knownClasses) classIds.putIfAbsent(className, classIds.size());
+
+		//Merged classes like 5ab or E2Q2Q4 are split only once here
+		List<List<String>> classes = new ArrayList<>(models.size());
+		for (SubstituteModel model : models) {
+			List<String> split = model.getClassName() != null ? SubstituteModel.splitClasses(model.getClassName()) : null;
+			if (split != null) for (String className : split) classIds.putIfAbsent(className, classIds.size());
+			classes.add(split);
+		}
+
+		int words = Math.max(1, (classIds.size() + 63) / 64);
+		SubstituteDTO[] substitutes = new SubstituteDTO[models.size()];
+		long[] days = new long[models.size()], classMasks = new long[models.size() * words];
+		BitSet unclassified = new BitSet();
+		Map<String, BitSet> byTeacher = new HashMap<>();
+
+		for (int i = 0; i < substitutes.length; i++) {
+			SubstituteModel model = models.get(i);
+			substitutes[i] = model.toResponseDTO();
+			days[i] = model.getDate().toLocalDate().toEpochDay();
+
+			if (classes.get(i) == null || classes.get(i).isEmpty()) unclassified.set(i);
+			else for (String className : classes.get(i)) set(classMasks, i * words, classIds.get(className));
+
+			//Substitute teachers are only matched if the substitute has a teacher as well
+			if (model.getTeacher() != null) {
+				add(byTeacher, model.getTeacher(), i);
+				if (model.getSubstituteTeacher() != null) add(byTeacher, model.getSubstituteTeacher(), i);
+			}
+		}
+
+		return new SubstituteIndex(substitutes, days, classIds, words, classMasks, unclassified, byTeacher);
+	}
+
+	private static void set(long[] mask, int offset, int id) {
+		mask[offset + (id >>> 6)] |= 1L << id;
+	}
+
+	private static void add(Map<String, BitSet> index, String key, int position) {
+		index.computeIfAbsent(key, k -> new BitSet()).set(position);
+	}
+
+	/**
+	 * Compile a class filter into a bitmask, unknown classes can't match and are ignored.
+	 *
+	 * @param classes to filter by
+	 * @return bitmask of class ids
+	 */
+	private long[] compile(Set<String> classes) {
+		long[] filter = new long[this.words];
+		for (String className : classes) {
+			Integer id = this.classIds.get(className);
+			if (id != null) set(filter, 0, id);
+		}
+
+		return filter;
+	}
+
+	private boolean matches(int position, long[] filter) {
+		for (int word = 0, offset = position * this.words; word < this.words; word++) {
+			if ((this.classMasks[offset + word] & filter[word]) != 0) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Get the substitutes from a day on matching the filters.
+	 * Without filters all substitutes are returned, otherwise substitutes without class or whose class splits into
+	 * none, substitutes of any of the classes and substitutes of any of the teachers.
+	 *
+	 * @param classes  to filter by, might be empty
+	 * @param teachers to filter by teacher and substitute teacher, might be empty
+	 * @param today    first day of returned substitutes
+	 * @return matching substitutes
+	 */
+	public List<SubstituteDTO> find(Set<String> classes, Set<String> teachers, LocalDate today) {
+		if (this.substitutes.length == 0) return Collections.emptyList();
+
+		boolean all = classes.isEmpty() && teachers.isEmpty();
+		long[] filter = this.compile(classes);
+		BitSet teacherMatches = new BitSet();
+		for (String teacher : teachers) {
+			BitSet positions = this.byTeacher.get(teacher);
+			if (positions != null) teacherMatches.or(positions);
+		}
+
+		long day = today.toEpochDay();
+		List<SubstituteDTO> found = new ArrayList<>();
+		for (int i = 0; i < this.substitutes.length; i++) {
+			if (this.days[i] < day) continue;
+
+			if (all || this.unclassified.get(i) || this.matches(i, filter) || teacherMatches.get(i))
+				found.add(this.substitutes[i]);
+		}
+
+		return found;
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Receiver of the content of a substitute page in order of the page.
+ * Events are emitted by a {@link SubstitutePageParser}.
+ */
+public interface SubstitutePageListener {
+
+	/**
+	 * Called if the following content belongs to another day.
+	 *
+	 * @param rawDate text of the date header, e.g. "12.9. Dienstag"
+	 * @throws ParseException if the date couldn't be parsed
+	 */
+	void onDate(String rawDate) throws ParseException;
+
+	/**
+	 * Called at the start of a table with substitutes.
+	 */
+	void onSubstituteTableStart();
+
+	/**
+	 * Called for every substitute row, header rows are skipped.
+	 * The tokenizer is reused for the next row, so it must not be kept.
+	 *
+	 * @param row tokenizer holding the cells of the row
+	 * @throws ParseException if the row is not valid
+	 */
+	void onSubstituteRow(SubstituteRowTokenizer row) throws ParseException;
+
+	/**
+	 * Called at the end of a table with substitutes.
+	 */
+	void onSubstituteTableEnd();
+
+	/**
+	 * Called for every table with substitute messages.
+	 *
+	 * @param entries text of all cells of the table, pairs of title and content
+	 * @throws ParseException if no date was given before
+	 */
+	void onMessageTable(List<String> entries) throws ParseException;
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Engine to parse the #vertretung block of a substitute page (w00000.htm) into events.
+ * Implementations are stateless and can be used by many threads.
+ */
+public interface SubstitutePageParser {
+
+	/**
+	 * Get an engine by its name.
+	 *
+	 * @param name "streaming" or "jsoup", null for the default
+	 * @return streaming engine if requested, jsoup engine otherwise
+	 */
+	static SubstitutePageParser of(@Nullable String name) {
+		return "streaming".equalsIgnoreCase(name) ? new StreamingSubstitutePageParser() : new JsoupSubstitutePageParser();
+	}
+
+	/**
+	 * Parse a page and emit its content to a listener.
+	 *
+	 * @param body     raw body of page
+	 * @param charset  of body, detected by the page if null
+	 * @param baseUri  of page
+	 * @param listener to emit the content to
+	 * @return false if the page has no #vertretung block
+	 * @throws IOException    if the body couldn't be read
+	 * @throws ParseException if the listener couldn't handle the content
+	 */
+	boolean parse(byte[] body, @Nullable String charset, String baseUri, SubstitutePageListener listener)
+			throws IOException, ParseException;
+
+}
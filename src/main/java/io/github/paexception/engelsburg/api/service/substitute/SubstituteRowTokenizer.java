@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.service.substitute;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokenizer of the rows of a substitute table.
+ * Classifies the cells by scanning their chars instead of matching regular expressions.
+ * Instances reuse their buffers and are therefore not thread-safe, use one per parsed page.
+ * <p>
+ * e.g.
+ * <pre>
+ * | 8e | 1 - 3 | &nbsp; | &nbsp; | &nbsp; | Veranst. | &nbsp; | &nbsp; | ALL |
+ *   0    1       2        3        4        5          6        7        8
+ * </pre>
+ */
+public class SubstituteRowTokenizer {
+
+	private String[] cells = new String[9];
+	private int count;
+
+	/**
+	 * Check if text contains an ASCII digit.
+	 * Same as {@code text.matches("(.*)[0-9](.*)")}.
+	 *
+	 * @param text to check
+	 * @return true if a digit is contained
+	 */
+	public static boolean hasDigit(String text) {
+		boolean digit = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= '0' && c <= '9') digit = true;
+			else if (isLineTerminator(c)) return false; //Not matched by "."
+		}
+
+		return digit;
+	}
+
+	/**
+	 * Check if text contains an ASCII letter, a german umlaut or an ASCII digit.
+	 * Same as {@code text.matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")}.
+	 *
+	 * @param text to check
+	 * @return true if a letter or digit is contained
+	 */
+	public static boolean hasLetterOrDigit(String text) {
+		boolean letterOrDigit = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+					|| c == 'ä' || c == 'ö' || c == 'ü' || c == 'Ä' || c == 'Ö' || c == 'Ü') letterOrDigit = true;
+			else if (isLineTerminator(c)) return false; //Not matched by "."
+		}
+
+		return letterOrDigit;
+	}
+
+	/**
+	 * Check if text is a placeholder of an empty cell.
+	 * Same as {@code text.matches("\\h")}, so only a single horizontal whitespace.
+	 *
+	 * @param text to check
+	 * @return true if blank
+	 */
+	public static boolean isBlank(String text) {
+		if (text.length() != 1) return false;
+
+		char c = text.charAt(0);
+		return c == ' ' || c == '\t' || c == '\u00A0' || c == '\u1680' || c == '\u180E'
+				|| (c >= '\u2000' && c <= '\u200A') || c == '\u202F' || c == '\u205F' || c == '\u3000';
+	}
+
+	/**
+	 * Check if text is the placeholder of a missing room.
+	 *
+	 * @param text to check
+	 * @return true if equal to "---"
+	 */
+	public static boolean isNone(String text) {
+		return text.equals("---");
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * Parse a lesson number.
+	 * ASCII digits are parsed directly, everything else is left to {@link Integer#parseInt(String)}.
+	 *
+	 * @param lessons text of lesson cell without spaces
+	 * @param start   index of number
+	 * @param end     index after number
+	 * @return parsed number
+	 * @throws NumberFormatException if the text is no number
+	 */
+	private static int parseLesson(String lessons, int start, int end) {
+		if (end > start && end - start < 10) {
+			int number = 0;
+			for (int i = start; i < end; i++) {
+				char c = lessons.charAt(i);
+				if (c < '0' || c > '9') return Integer.parseInt(lessons.substring(start, end));
+				number = number * 10 + (c - '0');
+			}
+
+			return number;
+		}
+
+		return Integer.parseInt(lessons.substring(start, end));
+	}
+
+	/**
+	 * Start a new row.
+	 */
+	public void reset() {
+		Arrays.fill(this.cells, 0, this.count, null);
+		this.count = 0;
+	}
+
+	/**
+	 * Add the text of the next cell of the current row.
+	 *
+	 * @param text of cell
+	 */
+	public void add(String text) {
+		if (this.count == this.cells.length) this.cells = Arrays.copyOf(this.cells, this.count * 2);
+		this.cells[this.count++] = text;
+	}
+
+	/**
+	 * Get the text of a cell of the current row.
+	 *
+	 * @param index of cell
+	 * @return text of cell
+	 * @throws IndexOutOfBoundsException if the row has no such cell
+	 */
+	public String cell(int index) {
+		if (index >= this.count) throw new IndexOutOfBoundsException("Row has no cell " + index);
+
+		return this.cells[index];
+	}
+
+	/**
+	 * Get the text of the last cell of the current row.
+	 *
+	 * @return text of last cell
+	 */
+	public String lastCell() {
+		return this.cell(this.count - 1);
+	}
+
+	/**
+	 * Check if the current row only extends the text of the previous substitute.
+	 *
+	 * @return true if the lesson cell contains no digit
+	 */
+	public boolean isContinuation() {
+		return !hasDigit(this.cell(1));
+	}
+
+	/**
+	 * Create the substitutes of the current row.
+	 * A row with a lesson range, e.g. "3 - 5", results in one substitute per lesson.
+	 *
+	 * @param date of substitutes
+	 * @param out  to add the substitutes to in order of their lessons
+	 * @return count of added substitutes
+	 * @throws NumberFormatException if the lesson cell is no number or range
+	 */
+	public int tokenize(Date date, List<SubstituteDTO> out) {
+		String lessons = this.cell(1);
+		if (lessons.indexOf(' ') >= 0) lessons = lessons.replace(" ", "");
+
+		int low, high, separator = lessons.indexOf('-');
+		if (separator >= 0) { //5 - 6, //3 - 6
+			low = parseLesson(lessons, 0, separator);
+			high = parseLesson(lessons, separator + 1, lessons.length());
+		} else low = high = parseLesson(lessons, 0, lessons.length());
+
+		int added = 0;
+		for (int lesson = Math.min(low, high); lesson <= high; lesson++, added++) out.add(this.create(date, lesson));
+
+		return added;
+	}
+
+	/**
+	 * Create a substitute of the current row.
+	 *
+	 * @param date   of substitute
+	 * @param lesson of substitute
+	 * @return created substitute
+	 */
+	private SubstituteDTO create(Date date, int lesson) {
+		SubstituteDTO dto = new SubstituteDTO();
+		dto.setDate(date);
+		dto.setLesson(lesson);
+		if (hasDigit(this.cell(0))) dto.setClassName(this.cell(0));
+		if (hasDigit(this.cell(2))) dto.setSubject(this.cell(2));
+		if (hasLetterOrDigit(this.cell(3))) dto.setSubstituteTeacher(this.cell(3));
+		if (hasLetterOrDigit(this.cell(4))) dto.setTeacher(this.cell(4));
+		dto.setType(this.cell(5));
+		if (hasDigit(this.cell(6))) dto.setSubstituteOf(this.cell(6));
+		if (!isNone(this.cell(7))) dto.setRoom(this.cell(7));
+		if (!isBlank(this.cell(8))) dto.setText(this.cell(8));
+
+		return dto;
+	}
+
+}
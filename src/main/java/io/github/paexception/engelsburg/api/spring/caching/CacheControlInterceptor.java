@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.caching;
+
+import io.github.paexception.engelsburg.api.service.FetchingService;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interceptor to add Cache-Control headers to responses of {@link Cached} methods.
+ *
+ * <p>Responses may be cached until the next scheduled fetch of the service refreshing them and used stale
+ * for one more interval while revalidating.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheControlInterceptor implements HandlerInterceptor {
+
+	private final ApplicationContext applicationContext;
+	private final Map<Class<?>, Long> rates = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the shortest fixed rate a service is scheduled at.
+	 *
+	 * @param service to get the rate of
+	 * @return rate in millis, 0 if not scheduled at a fixed rate
+	 */
+	static long rate(Class<?> service) {
+		long rate = 0;
+		for (Method method : service.getMethods()) {
+			Scheduled scheduled = method.getAnnotation(Scheduled.class);
+			if (scheduled != null && scheduled.fixedRate() > 0 && (rate == 0 || scheduled.fixedRate() < rate))
+				rate = scheduled.fixedRate();
+		}
+
+		return rate;
+	}
+
+	/**
+	 * Build the Cache-Control header of a resource.
+	 *
+	 * @param rate         the resource is fetched at in millis
+	 * @param lastJobStart start of the last fetch in epoch millis, 0 if not fetched yet
+	 * @param now          current time in epoch millis
+	 * @param reserved     if the response must only be cached privately
+	 * @return value of header
+	 */
+	static String cacheControl(long rate, long lastJobStart, long now, boolean reserved) {
+		long maxAge = lastJobStart > 0 ? Math.max(0, lastJobStart + rate - now) / 1000 : 0;
+
+		return (reserved ? "private" : "public") + ", max-age=" + maxAge + ", stale-while-revalidate=" + rate / 1000;
+	}
+
+	/**
+	 * Add the Cache-Control header, also to NOT_MODIFIED responses.
+	 *
+	 * @param request  given by spring
+	 * @param response to add the header to
+	 * @param handler  to get information about the method
+	 * @return always true
+	 */
+	@Override
+	public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler) {
+		if (!(handler instanceof HandlerMethod)) return true;
+
+		Cached cached = ((HandlerMethod) handler).getMethodAnnotation(Cached.class);
+		if (cached == null) return true;
+
+		long rate = this.rates.computeIfAbsent(cached.refreshedBy(), CacheControlInterceptor::rate);
+		if (rate == 0) return true;
+
+		FetchingService service = this.applicationContext.getBean(cached.refreshedBy());
+		response.setHeader(HttpHeaders.CACHE_CONTROL,
+				cacheControl(rate, service.getLastJobStart(), System.currentTimeMillis(), cached.reserved()));
+
+		return true;
+	}
+}
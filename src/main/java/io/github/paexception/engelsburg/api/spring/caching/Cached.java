@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.caching;
+
+import io.github.paexception.engelsburg.api.service.FetchingService;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark method as responding by the {@link ResponseCache}.
+ * Revalidation requests are answered by {@link NotModifiedInterceptor} before the method is invoked,
+ * {@link CacheControlInterceptor} lets clients cache responses until the resource is fetched next.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+	/**
+	 * Name of the resource the responses are built of.
+	 *
+	 * @return name of resource
+	 */
+	String value();
+
+	/**
+	 * Scheduled service fetching the resource.
+	 *
+	 * @return class of service
+	 */
+	Class<? extends FetchingService> refreshedBy();
+
+	/**
+	 * If the substitute key is required, revalidation requests without it are passed to the method.
+	 * Responses of reserved methods are only cached privately.
+	 *
+	 * @return true if reserved
+	 */
+	boolean reserved() default false;
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.caching;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized response with its gzip variant and ETag.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CachedResponse {
+
+	/**
+	 * Smaller responses are not worth compressing, same as server.compression.min-response-size.
+	 */
+	private static final int MIN_GZIP_SIZE = 1024;
+	private final int status;
+	private final HttpHeaders headers;
+	private final byte[] json;
+	private final byte[] gzip;
+	private final String eTag;
+	private final String hash;
+	private final long version;
+
+	/**
+	 * Create a cached response.
+	 * The ETag is the legacy Hash header of the response, weak as it is shared by the gzip variant.
+	 *
+	 * @param response as returned by {@link io.github.paexception.engelsburg.api.util.Result#getHttpResponse()}
+	 * @param json     serialized body of response
+	 * @param version  of the resource the response is built of
+	 * @return cached response
+	 */
+	static CachedResponse of(ResponseEntity<Object> response, byte[] json, long version) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(response.getHeaders());
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		String hash = headers.getFirst("Hash");
+		String eTag = hash != null ? "W/\"" + hash + "\"" : null;
+		if (eTag != null) headers.setETag(eTag);
+
+		return new CachedResponse(response.getStatusCodeValue(), HttpHeaders.readOnlyHttpHeaders(headers), json,
+				json.length >= MIN_GZIP_SIZE ? gzip(json) : null, eTag, hash, version);
+	}
+
+	/**
+	 * Compress bytes with gzip.
+	 * Compressed only once per version, so the best compression is used.
+	 *
+	 * @param bytes to compress
+	 * @return compressed bytes
+	 */
+	static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+			{
+				this.def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gzip.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Check if a client accepts gzip.
+	 *
+	 * @param acceptEncoding header of request, might be null
+	 * @return true if gzip is accepted
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) return false;
+
+		for (String encoding : acceptEncoding.split(",")) {
+			String[] parts = encoding.trim().split(";");
+			if (!parts[0].trim().equalsIgnoreCase("gzip") && !parts[0].trim().equals("*")) continue;
+
+			//gzip;q=0 means not acceptable
+			return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+		}
+
+		return false;
+	}
+
+	/**
+	 * Check if a client has this response already.
+	 * Only successful responses are revalidated, ETags are compared weakly.
+	 *
+	 * @param ifNoneMatch header of request, might be null
+	 * @param hash        legacy Hash header of request, might be null
+	 * @return true if not modified
+	 */
+	public boolean isNotModified(String ifNoneMatch, String hash) {
+		if (this.status != 200 || this.hash == null) return false;
+		if (hash != null && hash.trim().equals(this.hash)) return true;
+		if (ifNoneMatch == null) return false;
+
+		for (String eTag : ifNoneMatch.split(",")) {
+			eTag = eTag.trim();
+			if (eTag.equals("*")) return true;
+			if (eTag.startsWith("W/")) eTag = eTag.substring(2);
+			if (eTag.equals("\"" + this.hash + "\"")) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Convert into a http response, the bytes are written as they are.
+	 *
+	 * @param gzipAccepted if the client accepts gzip
+	 * @return http response
+	 */
+	public ResponseEntity<byte[]> toHttpResponse(boolean gzipAccepted) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.status(this.status).headers(this.headers);
+		if (this.gzip == null) return builder.body(this.json);
+
+		builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (!gzipAccepted) return builder.body(this.json);
+
+		return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(this.gzip);
+	}
+
+	/**
+	 * Convert into a NOT_MODIFIED http response with the validators of this response.
+	 *
+	 * @return http response without body
+	 */
+	public ResponseEntity<byte[]> toNotModifiedResponse() {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(this.eTag).header("Hash", this.hash).build();
+	}
+
+}
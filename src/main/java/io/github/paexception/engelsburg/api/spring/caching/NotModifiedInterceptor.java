@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.caching;
+
+import io.github.paexception.engelsburg.api.util.Environment;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Interceptor to answer revalidation requests of {@link Cached} methods.
+ *
+ * <p>If the response cached for the current version of the resource matches the If-None-Match or legacy Hash
+ * header, NOT_MODIFIED is returned without invoking the method, so neither the database nor the serializer is
+ * touched.</p>
+ */
+@Component
+@AllArgsConstructor
+public class NotModifiedInterceptor implements HandlerInterceptor {
+
+	private final ResponseCache responseCache;
+
+	/**
+	 * Check if the cached response of a request is not modified.
+	 *
+	 * @param request  given by spring with the conditional headers
+	 * @param response to eventually write NOT_MODIFIED
+	 * @param handler  to get information about the method
+	 * @return false if NOT_MODIFIED was written, true otherwise
+	 */
+	@Override
+	public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull Object handler) {
+		if (!(handler instanceof HandlerMethod)) return true;
+
+		Cached cached = ((HandlerMethod) handler).getMethodAnnotation(Cached.class);
+		if (cached == null) return true;
+		if (cached.reserved() && !Environment.SCHOOL_TOKEN.equals(request.getParameter("substituteKey"))) return true;
+
+		return !this.responseCache.respondNotModified(cached.value(), request, response);
+	}
+}
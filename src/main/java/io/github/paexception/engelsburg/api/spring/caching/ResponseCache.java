@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.caching;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.paexception.engelsburg.api.util.Result;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized responses per resource and normalized request.
+ * Responses are serialized, hashed and compressed once per change of their resource instead of once per request.
+ * The update services invalidate the resources they change, which increments the version of the resource.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+
+	private static final int MAX_RESPONSES = 256;
+	private final ObjectMapper mapper;
+	private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+	/**
+	 * Normalize a request into a key.
+	 * Comma separated values of parameters are sorted, the substitute key is not part of the response.
+	 *
+	 * @param request to normalize
+	 * @return key of request
+	 */
+	static String key(HttpServletRequest request) {
+		StringBuilder key = new StringBuilder(request.getRequestURI());
+		Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+		for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+			if (parameter.getKey().equals("substituteKey")) continue;
+
+			String[] values = String.join(",", parameter.getValue()).split(",");
+			Arrays.sort(values);
+			key.append('&').append(parameter.getKey()).append('=').append(String.join(",", values));
+		}
+
+		return key.toString();
+	}
+
+	private Resource resource(String name) {
+		return this.resources.computeIfAbsent(name, key -> new Resource());
+	}
+
+	/**
+	 * Respond with the cached response of a request or compute and cache it.
+	 * Conditional requests are answered with NOT_MODIFIED if the response matches, no matter if it was cached
+	 * already, so clients don't receive the whole response again after every invalidation.
+	 *
+	 * @param resource name of the resource the response is built of
+	 * @param request  to respond to
+	 * @param result   to compute the response if not cached
+	 * @return http response
+	 */
+	public ResponseEntity<byte[]> respond(String resource, HttpServletRequest request, Supplier<Result<?>> result) {
+		Resource cache = this.resource(resource);
+		String key = key(request);
+
+		CachedResponse response = cache.responses.get(key);
+		long version = cache.version.get();
+		if (response == null || response.getVersion() != version) {
+			response = this.serialize(result.get(), version);
+			cache.responses.put(key, response);
+		}
+
+		if (response.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), request.getHeader("Hash")))
+			return response.toNotModifiedResponse();
+
+		return response.toHttpResponse(CachedResponse.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+	}
+
+	/**
+	 * Respond with NOT_MODIFIED if the response cached for the current version of the resource matches the
+	 * conditional headers of the request.
+	 *
+	 * @param resource name of the resource the response is built of
+	 * @param request  to respond to
+	 * @param response to write NOT_MODIFIED to
+	 * @return true if NOT_MODIFIED was written
+	 */
+	public boolean respondNotModified(String resource, HttpServletRequest request, HttpServletResponse response) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH), hash = request.getHeader("Hash");
+		if (ifNoneMatch == null && hash == null) return false;
+
+		Resource cache = this.resources.get(resource);
+		if (cache == null) return false;
+
+		CachedResponse cached = cache.responses.get(key(request));
+		if (cached == null || cached.getVersion() != cache.version.get() || !cached.isNotModified(ifNoneMatch, hash))
+			return false;
+
+		response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		response.setHeader(HttpHeaders.ETAG, cached.getETag());
+		response.setHeader("Hash", cached.getHash());
+		return true;
+	}
+
+	/**
+	 * Invalidate all cached responses of a resource.
+	 * Responses computed concurrently are not served, because they are of an old version.
+	 *
+	 * @param resource name of the resource
+	 */
+	public void invalidate(String resource) {
+		Resource cache = this.resource(resource);
+		cache.version.incrementAndGet();
+		cache.responses.clear();
+	}
+
+	private CachedResponse serialize(Result<?> result, long version) {
+		ResponseEntity<Object> response = result.getHttpResponse();
+		try {
+			return CachedResponse.of(response, this.mapper.writeValueAsBytes(response.getBody()), version);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Version and cached responses of a resource.
+	 */
+	private static final class Resource {
+
+		private final AtomicLong version = new AtomicLong();
+		private final Map<String, CachedResponse> responses = Collections.synchronizedMap(
+				new LinkedHashMap<>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+						return this.size() > MAX_RESPONSES;
+					}
+				});
+
+	}
+
+}
@@ -5,6 +5,8 @@
 package io.github.paexception.engelsburg.api.spring.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.paexception.engelsburg.api.spring.caching.CacheControlInterceptor;
+import io.github.paexception.engelsburg.api.spring.caching.NotModifiedInterceptor;
 import io.github.paexception.engelsburg.api.spring.paging.PagingInterceptor;
 import io.github.paexception.engelsburg.api.spring.rate_limiting.RateLimitInterceptor;
 import lombok.AllArgsConstructor;
@@ -33,6 +35,8 @@ public class WebConfig implements WebMvcConfigurer {
 
 	private final PagingInterceptor pagingInterceptor;
 	private final RateLimitInterceptor rateLimitInterceptor;
+	private final CacheControlInterceptor cacheControlInterceptor;
+	private final NotModifiedInterceptor notModifiedInterceptor;
 	private final ObjectMapper mapper;
 
 	/**
@@ -81,6 +85,10 @@ public class WebConfig implements WebMvcConfigurer {
 		registry.addInterceptor(this.rateLimitInterceptor)
 				.order(Ordered.HIGHEST_PRECEDENCE)
 				.addPathPatterns("/**/*");
+		registry.addInterceptor(this.cacheControlInterceptor)
+				.addPathPatterns("/**/*");
+		registry.addInterceptor(this.notModifiedInterceptor)
+				.addPathPatterns("/**/*");
 		registry.addInterceptor(this.pagingInterceptor)
 				.order(Ordered.LOWEST_PRECEDENCE)
 				.addPathPatterns("/**/*");
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.paging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by date and id, used for keyset paging.
+ * Instead of skipping an offset, the next page starts right after the position, so deep pages are as fast as the
+ * first one and entities inserted meanwhile don't shift pages.
+ */
+@Data
+@AllArgsConstructor
+public class Cursor {
+
+	private long date;
+	private int id;
+
+	/**
+	 * Parse a cursor.
+	 * Accepts continuation tokens as well as plain "date,id".
+	 *
+	 * @param cursor to parse
+	 * @return parsed cursor or null if invalid
+	 */
+	public static Cursor parse(String cursor) {
+		try {
+			if (cursor.indexOf(',') < 0)
+				cursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+
+			String[] parts = cursor.split(",");
+			if (parts.length != 2) return null;
+
+			return new Cursor(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+		} catch (IllegalArgumentException e) {
+			//NumberFormatException as well
+			return null;
+		}
+	}
+
+	/**
+	 * Encode into an opaque continuation token.
+	 *
+	 * @return token
+	 */
+	public String toToken() {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((this.date + "," + this.id).getBytes(StandardCharsets.US_ASCII));
+	}
+
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2022 Paul Huerkamp. All rights reserved.
+ */
+
+package io.github.paexception.engelsburg.api.spring.paging;
+
+/**
+ * Element of a list ordered by date and id, whose position can be continued from by a {@link Cursor}.
+ * Implemented by entities and DTOs only, projections mustn't extend it: an entity implementing a projection
+ * is no projection for Spring Data anymore.
+ */
+public interface Positioned {
+
+	/**
+	 * Get the position of this element.
+	 *
+	 * @return cursor of position
+	 */
+	Cursor toCursor();
+
+}
@@ -19,6 +19,13 @@ public class Constants {
 
 	}
 
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	public static class Cafeteria {
+
+		public static final String NAME_KEY = "cafeteria";
+
+	}
+
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
 	public static class Event {
 
@@ -40,6 +47,13 @@ public class Constants {
 
 	}
 
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	public static class SolarSystem {
+
+		public static final String NAME_KEY = "solar_system";
+
+	}
+
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
 	public static class Substitute {
 
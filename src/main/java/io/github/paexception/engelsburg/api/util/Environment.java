@@ -13,5 +13,24 @@ public class Environment {
 	public static final String SCHOOL_TOKEN = System.getenv("SCHOOL_TOKEN");
 	public static final boolean PRODUCTION = Boolean.parseBoolean(System.getenv("PRODUCTION"));
 	public static final boolean BLURHASH = Boolean.parseBoolean(System.getenv("BLURHASH"));
+	public static final int FETCH_CONNECT_TIMEOUT = integer("FETCH_CONNECT_TIMEOUT", 10_000);
+	public static final int FETCH_READ_TIMEOUT = integer("FETCH_READ_TIMEOUT", 30_000);
+	public static final int FETCH_MAX_CONNECTIONS_PER_HOST = integer("FETCH_MAX_CONNECTIONS_PER_HOST", 4);
+	public static final int FETCH_THREADS = integer("FETCH_THREADS", 8);
+	public static final String SUBSTITUTE_PARSER = System.getenv("SUBSTITUTE_PARSER");
+	public static final boolean SUBSTITUTE_SQL_FILTER = Boolean.parseBoolean(System.getenv("SUBSTITUTE_SQL_FILTER"));
+
+	/**
+	 * Get an integer environment variable.
+	 *
+	 * @param name         of variable
+	 * @param defaultValue if not set
+	 * @return value of variable or default value
+	 */
+	private static int integer(String name, int defaultValue) {
+		String value = System.getenv(name);
+
+		return value != null && !value.isBlank() ? Integer.parseInt(value.trim()) : defaultValue;
+	}
 
 }
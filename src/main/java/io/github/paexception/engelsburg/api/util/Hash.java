@@ -4,28 +4,26 @@
 
 package io.github.paexception.engelsburg.api.util;
 
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
  * Util class for several hashes.
+ * All functions are thread-safe, digests are kept per thread and text is hashed as UTF-8 without
+ * creating an intermediate byte array.
  */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class Hash {
 
-	private static MessageDigest sha1;
-	private static MessageDigest sha256;
-
-	/**
-	 * Check if MessageDigests were initialized.
-	 * If they weren't initialize them.
-	 */
-	private static void initialize() {
-		try {
-			if (sha1 == null) sha1 = MessageDigest.getInstance("SHA-1");
-			if (sha256 == null) sha256 = MessageDigest.getInstance("SHA-256");
-		} catch (NoSuchAlgorithmException ignored) { //Impossible
-		}
-	}
+	private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> digest("SHA-1"));
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> digest("SHA-256"));
+	private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[1024]);
+	private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[1024 * 3 + 1]);
 
 	/**
 	 * Create an SHA-1 hash of an object.
@@ -35,11 +33,21 @@ public class Hash {
 	 */
 	public static byte[] sha1(Object obj) {
 		if (obj == null) return new byte[0];
-		initialize();
 
-		return sha1.digest(obj.toString().getBytes());
+		return digest(SHA1.get(), obj);
 	}
 
+	/**
+	 * Create an SHA-1 hash of raw bytes.
+	 *
+	 * @param bytes to hash
+	 * @return created hash
+	 */
+	public static byte[] sha1(byte[] bytes) {
+		if (bytes == null) return new byte[0];
+
+		return SHA1.get().digest(bytes);
+	}
 
 	/**
 	 * Create an SHA-256 hash of an object.
@@ -49,7 +57,246 @@ public class Hash {
 	 */
 	public static byte[] sha256(Object obj) {
 		if (obj == null) return new byte[0];
-		initialize();
-		return sha256.digest(obj.toString().getBytes());
+
+		return digest(SHA256.get(), obj);
+	}
+
+	/**
+	 * Create a fast, non-cryptographic 64-bit fingerprint (XXH64) of raw bytes.
+	 * Only meant for change detection.
+	 *
+	 * @param bytes to fingerprint
+	 * @return fingerprint
+	 */
+	public static long fingerprint(byte[] bytes) {
+		return new Fingerprint().update(bytes, 0, bytes.length).getValue();
+	}
+
+	/**
+	 * Create a fast, non-cryptographic 64-bit fingerprint (XXH64) of the UTF-8 bytes of an object.
+	 * Only meant for change detection.
+	 *
+	 * @param obj to fingerprint
+	 * @return fingerprint
+	 */
+	public static long fingerprint(Object obj) {
+		return new Fingerprint().append(obj instanceof CharSequence ? (CharSequence) obj : obj.toString()).getValue();
+	}
+
+	/**
+	 * Get a fingerprint as bytes, e.g. to store it.
+	 *
+	 * @param fingerprint to convert
+	 * @return big endian bytes of the fingerprint
+	 */
+	public static byte[] toBytes(long fingerprint) {
+		byte[] bytes = new byte[8];
+		for (int i = 7; i >= 0; i--) {
+			bytes[i] = (byte) fingerprint;
+			fingerprint >>>= 8;
+		}
+
+		return bytes;
+	}
+
+	private static MessageDigest digest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) { //Impossible, every JVM has to support SHA-1 and SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] digest(MessageDigest digest, Object obj) {
+		digest.reset();
+		CharSequence text = obj instanceof CharSequence ? (CharSequence) obj : obj.toString();
+		encodeUtf8(text, digest::update);
+
+		return digest.digest();
+	}
+
+	/**
+	 * Encode text as UTF-8 in chunks of a per thread buffer and pass them to a sink.
+	 * Unpaired surrogates are encoded as '?' like {@link String#getBytes(java.nio.charset.Charset)} does.
+	 *
+	 * @param text to encode
+	 * @param sink to pass encoded chunks to
+	 */
+	private static void encodeUtf8(CharSequence text, ByteSink sink) {
+		byte[] buffer = BUFFER.get();
+		char[] chars = CHARS.get();
+		int length = text.length(), start = 0;
+
+		while (start < length) {
+			int end = Math.min(length, start + chars.length), pos = 0;
+			if (text instanceof String) ((String) text).getChars(start, end, chars, 0);
+			else if (text instanceof StringBuilder) ((StringBuilder) text).getChars(start, end, chars, 0);
+			else for (int i = start; i < end; i++) chars[i - start] = text.charAt(i);
+
+			for (int i = 0, count = end - start; i < count; i++) {
+				char c = chars[i];
+				if (c < 0x80) buffer[pos++] = (byte) c;
+				else if (c < 0x800) {
+					buffer[pos++] = (byte) (0xC0 | c >> 6);
+					buffer[pos++] = (byte) (0x80 | c & 0x3F);
+				} else if (Character.isSurrogate(c)) {
+					//Low surrogate might be the first char of the next chunk
+					char low = i + 1 < count ? chars[i + 1] : start + i + 1 < length ? text.charAt(start + i + 1) : 0;
+					if (Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+						int codePoint = Character.toCodePoint(c, low);
+						buffer[pos++] = (byte) (0xF0 | codePoint >> 18);
+						buffer[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+						buffer[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+						buffer[pos++] = (byte) (0x80 | codePoint & 0x3F);
+						if (++i == count) end++; //Skip low surrogate of the next chunk
+					} else buffer[pos++] = '?';
+				} else {
+					buffer[pos++] = (byte) (0xE0 | c >> 12);
+					buffer[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+					buffer[pos++] = (byte) (0x80 | c & 0x3F);
+				}
+			}
+			sink.update(buffer, 0, pos);
+			start = end;
+		}
+	}
+
+	/**
+	 * Receiver of encoded bytes.
+	 */
+	@FunctionalInterface
+	private interface ByteSink {
+
+		void update(byte[] bytes, int offset, int length);
+	}
+
+	/**
+	 * Incremental XXH64 fingerprint.
+	 * Text can be appended directly, e.g. by {@code element.html(fingerprint)}, to avoid building a String first.
+	 * Instances are not thread-safe.
+	 */
+	public static class Fingerprint implements Appendable {
+
+		private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+		private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+		private static final long P1 = 0x9E3779B185EBCA87L;
+		private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+		private static final long P3 = 0x165667B19E3779F9L;
+		private static final long P4 = 0x85EBCA77C2B2AE63L;
+		private static final long P5 = 0x27D4EB2F165667C5L;
+
+		private final byte[] stripe = new byte[32];
+		private final StringBuilder single = new StringBuilder(1);
+		private int buffered;
+		private long length;
+		private long v1 = P1 + P2;
+		private long v2 = P2;
+		private long v3;
+		private long v4 = -P1;
+
+		private static long round(long acc, long input) {
+			return Long.rotateLeft(acc + input * P2, 31) * P1;
+		}
+
+		private static long merge(long acc, long value) {
+			return (acc ^ round(0, value)) * P1 + P4;
+		}
+
+		/**
+		 * Add raw bytes.
+		 *
+		 * @param bytes  to add
+		 * @param offset of first byte
+		 * @param count  of bytes
+		 * @return this fingerprint
+		 */
+		public Fingerprint update(byte[] bytes, int offset, int count) {
+			this.length += count;
+			int end = offset + count;
+
+			if (this.buffered > 0) { //Complete a pending stripe first
+				int fill = Math.min(32 - this.buffered, count);
+				System.arraycopy(bytes, offset, this.stripe, this.buffered, fill);
+				this.buffered += fill;
+				offset += fill;
+				if (this.buffered < 32) return this;
+
+				this.consume(this.stripe, 0);
+				this.buffered = 0;
+			}
+
+			for (; offset <= end - 32; offset += 32) this.consume(bytes, offset);
+
+			System.arraycopy(bytes, offset, this.stripe, 0, end - offset);
+			this.buffered = end - offset;
+			return this;
+		}
+
+		@Override
+		public Fingerprint append(CharSequence text) {
+			encodeUtf8(text != null ? text : "null", this::update);
+
+			return this;
+		}
+
+		@Override
+		public Fingerprint append(CharSequence text, int start, int end) {
+			return this.append((text != null ? text : "null").subSequence(start, end));
+		}
+
+		/**
+		 * Add a single char as UTF-8.
+		 * Surrogate pairs appended char by char are fingerprinted as two '?', which is still deterministic.
+		 *
+		 * @param c to add
+		 * @return this fingerprint
+		 */
+		@Override
+		public Fingerprint append(char c) {
+			this.single.setLength(0);
+
+			return this.append(this.single.append(c));
+		}
+
+		/**
+		 * Get the fingerprint of all added bytes.
+		 *
+		 * @return fingerprint
+		 */
+		public long getValue() {
+			long hash;
+			if (this.length >= 32) {
+				hash = Long.rotateLeft(this.v1, 1) + Long.rotateLeft(this.v2, 7)
+						+ Long.rotateLeft(this.v3, 12) + Long.rotateLeft(this.v4, 18);
+				hash = merge(hash, this.v1);
+				hash = merge(hash, this.v2);
+				hash = merge(hash, this.v3);
+				hash = merge(hash, this.v4);
+			} else hash = P5;
+			hash += this.length;
+
+			int i = 0;
+			for (; i <= this.buffered - 8; i += 8)
+				hash = Long.rotateLeft(hash ^ round(0, (long) LONG.get(this.stripe, i)), 27) * P1 + P4;
+			if (i <= this.buffered - 4) {
+				hash = Long.rotateLeft(hash ^ ((int) INT.get(this.stripe, i) & 0xFFFFFFFFL) * P1, 23) * P2 + P3;
+				i += 4;
+			}
+			for (; i < this.buffered; i++) hash = Long.rotateLeft(hash ^ (this.stripe[i] & 0xFFL) * P5, 11) * P1;
+
+			hash ^= hash >>> 33;
+			hash *= P2;
+			hash ^= hash >>> 29;
+			hash *= P3;
+			return hash ^ hash >>> 32;
+		}
+
+		private void consume(byte[] bytes, int offset) {
+			this.v1 = round(this.v1, (long) LONG.get(bytes, offset));
+			this.v2 = round(this.v2, (long) LONG.get(bytes, offset + 8));
+			this.v3 = round(this.v3, (long) LONG.get(bytes, offset + 16));
+			this.v4 = round(this.v4, (long) LONG.get(bytes, offset + 24));
+		}
+
 	}
 }
@@ -6,6 +6,7 @@ package io.github.paexception.engelsburg.api.util;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import io.github.paexception.engelsburg.api.service.FetchingClient;
 import io.trbl.blurhash.BlurHash;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -14,9 +15,9 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
+import java.util.Collections;
 
 /**
  * Util class for WordPress-API operations.
@@ -27,13 +28,16 @@ public class WordPressAPI {
 	/**
 	 * Apply blur hashes to all images in html attributes.
 	 *
-	 * @param element to apply
+	 * @param client   to fetch the images by
+	 * @param element  to apply
+	 * @param deadline epoch millis until all images have to be fetched
 	 * @return this element
 	 * @throws IOException if image couldn't be read
 	 */
-	public static Element applyBlurHashToAllImages(Element element) throws IOException {
+	public static Element applyBlurHashToAllImages(FetchingClient client, Element element, long deadline)
+			throws IOException {
 		for (Element img : element.getElementsByTag("img"))
-			img.attr("blurHash", getBlurHash(img.attr("src")));
+			img.attr("blurHash", getBlurHash(client, img.attr("src"), deadline));
 
 		return element;
 	}
@@ -41,12 +45,15 @@ public class WordPressAPI {
 	/**
 	 * Get the blur hash of an image.
 	 *
+	 * @param client   to fetch the image by
 	 * @param imageUrl to read
+	 * @param deadline epoch millis until the image has to be fetched
 	 * @return the blur hash
 	 * @throws IOException the image couldn't be read
 	 */
-	public static String getBlurHash(String imageUrl) throws IOException {
-		BufferedImage image = ImageIO.read(new URL(imageUrl));
+	public static String getBlurHash(FetchingClient client, String imageUrl, long deadline) throws IOException {
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(
+				client.fetch(imageUrl, Collections.emptyMap(), deadline).getBody()));
 
 		return BlurHash.encode(image);
 	}
@@ -54,17 +61,20 @@ public class WordPressAPI {
 	/**
 	 * Parse the mediaUrl from a WordPress entity.
 	 *
+	 * @param client        to fetch the media by
 	 * @param featuredMedia id if listed
 	 * @param content       to search for an alternative img
+	 * @param deadline      epoch millis until the media has to be fetched
 	 * @return media url
 	 * @throws IOException if something goes wrong connecting
 	 */
-	public static String getFeaturedMedia(int featuredMedia, String content) throws IOException {
+	public static String getFeaturedMedia(FetchingClient client, int featuredMedia, String content, long deadline)
+			throws IOException {
 		Elements elements;
 		if (featuredMedia != 0) { //Featured media listed?
-			JsonObject mediaJson = JsonParser.parseReader(new InputStreamReader(
-					new URL("https://engelsburg.smmp.de/wp-json/wp/v2/media/" + featuredMedia)
-							.openConnection().getInputStream())).getAsJsonObject(); //Then get img url via wordpress api
+			JsonObject mediaJson = JsonParser.parseString(client
+					.fetch("https://engelsburg.smmp.de/wp-json/wp/v2/media/" + featuredMedia, Collections.emptyMap(),
+							deadline).text()).getAsJsonObject(); //Then get img url via wordpress api
 			return mediaJson.get("source_url").getAsString();
 		} else if ((elements = Jsoup.parse(content).getElementsByClass(
 				"wp-block-image")).size() > 0) { //If not search for first image in article
@@ -0,0 +1,68 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import io.github.paexception.engelsburg.api.util.Hash;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of detecting an unchanged substitute week per fetch cycle.
+ * Compares parsing the page and hashing the re-serialized element with fingerprinting the raw body.
+ * <p>
+ * Run with a real export via {@code -p page=/path/to/w00000.htm}, otherwise a generated week of
+ * comparable size (5 days, 80 rows each, about 160 KB) is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChangeDetectionBenchmark {
+
+    @Param("")
+    public String page;
+
+    private byte[] body;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ChangeDetectionBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        this.body = this.page.isEmpty() ? SubstitutePages.week(5, 80) : Files.readAllBytes(Path.of(this.page));
+    }
+
+    @Benchmark
+    public byte[] parseAndHashElement() throws IOException {
+        Document document = Jsoup.parse(new ByteArrayInputStream(this.body), null, "");
+
+        return Hash.sha1(document.getElementById("vertretung"));
+    }
+
+    @Benchmark
+    public byte[] hashRawBody() {
+        return Hash.sha1(this.body);
+    }
+
+}
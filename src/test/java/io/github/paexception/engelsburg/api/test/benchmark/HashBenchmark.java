@@ -0,0 +1,82 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import io.github.paexception.engelsburg.api.util.Hash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous shared static MessageDigest of {@link Hash} with the per thread digests and the
+ * 64-bit fingerprint, for a small response and a substitute week.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashBenchmark {
+
+    @Param({"1", "80"})
+    public int rowsPerDay;
+
+    private MessageDigest legacy;
+    private String text;
+    private byte[] bytes;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HashBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        this.legacy = MessageDigest.getInstance("SHA-1");
+        this.text = SubstitutePages.weekHtml(this.rowsPerDay == 1 ? 1 : 5, this.rowsPerDay);
+        this.bytes = this.text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Previous implementation: one shared digest and an intermediate byte array of the String.
+     */
+    @Benchmark
+    public byte[] legacySha1() {
+        return this.legacy.digest(this.text.toString().getBytes());
+    }
+
+    @Benchmark
+    public byte[] sha1() {
+        return Hash.sha1(this.text);
+    }
+
+    @Benchmark
+    public byte[] sha1Bytes() {
+        return Hash.sha1(this.bytes);
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return Hash.fingerprint(this.text);
+    }
+
+    @Benchmark
+    public long fingerprintBytes() {
+        return Hash.fingerprint(this.bytes);
+    }
+
+}
@@ -0,0 +1,107 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDiff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous created/updated classification of a day's substitutes with {@link SubstituteDiff}.
+ * Both start from fresh copies of the stored rows, as the diff updates them in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstituteDiffBenchmark {
+
+    private static final Date DATE = new Date(169879761);
+    private static final String[] CLASSES = {"5a", "5b", "6c", "7a", "8e", "9b", "10c", "E1", "Q2", "Q4", null};
+    private static final String[] TEACHERS = {"GAR", "KLE", "BSU", "GRB", "ALL", "MUE", "SCH", "WEB"};
+
+    @Param({"50", "500"})
+    public int rows;
+
+    private final List<SubstituteDTO> stored = new ArrayList<>();
+    private final List<SubstituteDTO> fetched = new ArrayList<>();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SubstituteDiffBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static SubstituteModel toModel(SubstituteDTO dto) {
+        return new SubstituteModel(-1, dto.getDate(), dto.getClassName(), dto.getLesson(), dto.getSubject(),
+                dto.getSubstituteTeacher(), dto.getTeacher(), dto.getType(), dto.getSubstituteOf(), dto.getRoom(),
+                dto.getText());
+    }
+
+    @Setup
+    public void setup() {
+        //90% unchanged, 5% changed rooms, 5% new rows
+        for (int row = 0; row < this.rows; row++) {
+            SubstituteDTO dto = new SubstituteDTO(DATE, CLASSES[row % CLASSES.length], 1 + row / CLASSES.length % 10,
+                    "M", TEACHERS[row % TEACHERS.length], TEACHERS[(row + 3) % TEACHERS.length], "Vertretung", null,
+                    "A" + row, null);
+            this.stored.add(dto);
+
+            if (row % 20 == 0) this.fetched.add(new SubstituteDTO(DATE, dto.getClassName(), dto.getLesson(), "M",
+                    dto.getSubstituteTeacher(), dto.getTeacher(), "Vertretung", null, "B" + row, null));
+            else if (row % 20 == 1) this.fetched.add(new SubstituteDTO(DATE, "Q1", 11 + row, "D", "ALL", "MUE",
+                    "Entfall", null, null, null));
+            else this.fetched.add(dto);
+        }
+    }
+
+    private List<SubstituteModel> storedModels() {
+        List<SubstituteModel> models = new ArrayList<>(this.stored.size());
+        for (SubstituteDTO dto : this.stored) models.add(toModel(dto));
+
+        return models;
+    }
+
+    /**
+     * Previous implementation: every fetched row is compared with all stored rows.
+     */
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        List<SubstituteDTO> current = new ArrayList<>();
+        for (SubstituteModel model : this.storedModels()) current.add(model.toResponseDTO());
+
+        List<SubstituteDTO> updated = new ArrayList<>(), created = new ArrayList<>();
+        for (SubstituteDTO dto : this.fetched) {
+            if (current.stream().anyMatch(substituteDTO -> substituteDTO.sameBase(dto))) {
+                if (!current.contains(dto)) updated.add(dto);
+            } else created.add(dto);
+        }
+
+        blackhole.consume(updated);
+        blackhole.consume(created);
+    }
+
+    @Benchmark
+    public SubstituteDiff indexed() {
+        return SubstituteDiff.of(this.storedModels(), this.fetched, SubstituteDiffBenchmark::toModel);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDay;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDayCollector;
+import io.github.paexception.engelsburg.api.service.substitute.SubstitutePageParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the jsoup and the streaming engine parsing a whole substitute page.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation rate, use a real export via {@code -p page=/path/to/w00000.htm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstitutePageBenchmark {
+
+    @Param({"jsoup", "streaming"})
+    public String engine;
+
+    @Param("")
+    public String page;
+
+    private SubstitutePageParser parser;
+    private byte[] body;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SubstitutePageBenchmark.class.getSimpleName())
+                .addProfiler("gc").build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        this.parser = SubstitutePageParser.of(this.engine);
+        this.body = this.page.isEmpty() ? SubstitutePages.week(5, 80) : Files.readAllBytes(Path.of(this.page));
+    }
+
+    @Benchmark
+    public List<SubstituteDay> parse() throws IOException, ParseException {
+        SubstituteDayCollector collector = new SubstituteDayCollector(2023);
+        this.parser.parse(this.body, null, "https://engelsburg.smmp.de/", collector);
+
+        return collector.getDays();
+    }
+
+}
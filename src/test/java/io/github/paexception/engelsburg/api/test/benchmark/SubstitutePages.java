@@ -0,0 +1,90 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates substitute pages shaped like the w00000.htm of the Untis export.
+ */
+public final class SubstitutePages {
+
+    private static final String[] DAYS = {"Montag", "Dienstag", "Mittwoch", "Donnerstag", "Freitag"};
+    private static final String[] CLASSES = {"5a", "5b", "6c", "7a", "8e", "9b", "10c", "E1", "Q2", "Q4"};
+    private static final String[] TEACHERS = {"GAR", "KLE", "BSU", "GRB", "ALL", "MUE", "SCH", "WEB"};
+    private static final String[] TYPES = {"Vertretung", "Entfall", "Betreuung", "Raum-Vertr.", "Veranst."};
+
+    private SubstitutePages() {
+    }
+
+    /**
+     * Generate the html of a week.
+     *
+     * @param days       of week, at most 5
+     * @param rowsPerDay substitute rows of each day
+     * @return html page
+     */
+    public static String weekHtml(int days, int rowsPerDay) {
+        StringBuilder html = new StringBuilder("<html><head><title>Untis Vertretungsplan</title>"
+                + "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\"></head><body>\n"
+                + "<div id=\"vertretung\">\n");
+        for (int day = 0; day < days; day++) {
+            if (day == 0) html.append("<a name=\"1\">&nbsp;</a><br><b>11.9. Montag</b>\n");
+            else html.append("<p><a name=\"").append(day + 1).append("\">&nbsp;</a><br><b>").append(11 + day)
+                    .append(".9. ").append(DAYS[day]).append("</b>\n");
+            for (int other = 0; other < 5; other++) {
+                if (other != day) html.append("<a href=\"#").append(other + 1).append("\">[ ").append(DAYS[other])
+                        .append(" ]</a>\n");
+            }
+            if (day != 0) html.append("</p>\n");
+
+            html.append("<p><table class=\"F\" cellpadding=\"0\" border=\"1\"><tr class=\"list\">"
+                    + "<td class=\"list\"><b>Nachrichten zum Tag</b></td></tr>\n"
+                    + "<tr class=\"list\"><td class=\"list\">Abwesende Lehrer</td><td class=\"list\">GAR, KLE</td></tr>\n"
+                    + "<tr class=\"list\"><td class=\"list\">Blockierte Räume</td><td class=\"list\">A101</td></tr>\n"
+                    + "<tr class=\"list\"><td class=\"list\">Heute 7. Stunde Konferenz</td></tr></table></p>\n");
+
+            html.append("<p><table class=\"subst\"><tr class=\"list\">");
+            for (String header : new String[]{"Klasse(n)", "Stunde", "Fach", "Vertreter", "(Lehrer)", "Art",
+                    "Vertr. von", "Raum", "Vertretungs-Text"}) {
+                html.append("<th class=\"list\" align=\"center\">").append(header).append("</th>");
+            }
+            html.append("</tr>\n");
+            for (int row = 0; row < rowsPerDay; row++) {
+                html.append("<tr class=\"list ").append(row % 2 == 0 ? "odd" : "even").append("\">");
+                if (row % 7 == 6) { //Continuation row of previous text
+                    for (int cell = 0; cell < 8; cell++) html.append("<td class=\"list\">&nbsp;</td>");
+                    html.append("<td class=\"list\">weiter im Raum</td></tr>\n");
+                    continue;
+                }
+                cell(html, "<b>" + CLASSES[row % CLASSES.length] + "</b>");
+                cell(html, row % 5 == 0 ? (1 + row % 4) + " - " + (3 + row % 4) : String.valueOf(1 + row % 9));
+                cell(html, row % 3 == 0 ? "&nbsp;" : "M" + row % 4);
+                cell(html, TEACHERS[row % TEACHERS.length]);
+                cell(html, row % 4 == 0 ? "&nbsp;" : TEACHERS[(row + 3) % TEACHERS.length]);
+                cell(html, TYPES[row % TYPES.length]);
+                cell(html, row % 6 == 0 ? "Mo-11.9. / " + (row % 9 + 1) : "&nbsp;");
+                cell(html, row % 8 == 0 ? "---" : "A" + (100 + row));
+                cell(html, row % 2 == 0 ? "&nbsp;" : "Aufgaben im Moodle");
+                html.append("</tr>\n");
+            }
+            html.append("</table></p>\n");
+        }
+
+        return html.append("<p> </p></div></body></html>\n").toString();
+    }
+
+    /**
+     * Generate the raw body of a week.
+     *
+     * @param days       of week, at most 5
+     * @param rowsPerDay substitute rows of each day
+     * @return UTF-8 encoded html page
+     */
+    public static byte[] week(int days, int rowsPerDay) {
+        return weekHtml(days, rowsPerDay).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void cell(StringBuilder html, String content) {
+        html.append("<td class=\"list\" align=\"center\">").append(content).append("</td>");
+    }
+
+}
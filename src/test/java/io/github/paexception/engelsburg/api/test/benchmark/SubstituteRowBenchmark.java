@@ -0,0 +1,133 @@
+package io.github.paexception.engelsburg.api.test.benchmark;
+
+import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteRowTokenizer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the previous regex based classification of substitute rows with {@link SubstituteRowTokenizer}.
+ * <p>
+ * Run with a directory of real exports via {@code -p corpus=/path/to/weeks}, otherwise 20 generated weeks
+ * are used as corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstituteRowBenchmark {
+
+    private static final Date DATE = new Date(169879761);
+
+    @Param("")
+    public String corpus;
+
+    private final List<String[]> rows = new ArrayList<>();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SubstituteRowBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> pages = new ArrayList<>();
+        if (this.corpus.isEmpty()) {
+            for (int week = 0; week < 20; week++) pages.add(SubstitutePages.weekHtml(5, 40 + week * 4));
+        } else {
+            try (Stream<Path> files = Files.list(Path.of(this.corpus))) {
+                for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList()))
+                    pages.add(Files.readString(file));
+            }
+        }
+
+        for (String page : pages) {
+            for (Element row : Jsoup.parse(page).select("table.subst tr.odd, table.subst tr.even")) {
+                this.rows.add(row.children().stream().map(Element::text).toArray(String[]::new));
+            }
+        }
+    }
+
+    /**
+     * Previous implementation: regular expressions per cell and recursion per lesson of a range.
+     */
+    @Benchmark
+    public List<SubstituteDTO> legacyRegex() {
+        List<SubstituteDTO> dtos = new ArrayList<>();
+        for (String[] row : this.rows) {
+            if (!dtos.isEmpty() && !row[1].matches("(.*)[0-9](.*)")) continue;
+            dtos.addAll(legacyCreate(row.clone()));
+        }
+
+        return dtos;
+    }
+
+    @Benchmark
+    public List<SubstituteDTO> tokenizer() {
+        List<SubstituteDTO> dtos = new ArrayList<>();
+        SubstituteRowTokenizer tokenizer = new SubstituteRowTokenizer();
+        for (String[] row : this.rows) {
+            tokenizer.reset();
+            for (String cell : row) tokenizer.add(cell);
+            if (!dtos.isEmpty() && tokenizer.isContinuation()) continue;
+            tokenizer.tokenize(DATE, dtos);
+        }
+
+        return dtos;
+    }
+
+    private static List<SubstituteDTO> legacyCreate(String[] row) {
+        List<SubstituteDTO> dtos = new ArrayList<>();
+        SubstituteDTO dto = new SubstituteDTO();
+        dto.setDate(DATE);
+        if (row[0].matches("(.*)[0-9](.*)")) dto.setClassName(row[0]);
+        String lessons = row[1].replace(" ", "");
+        if (lessons.contains("-")) {
+            int low = Integer.parseInt(lessons.substring(0, lessons.indexOf("-"))),
+                    high = Integer.parseInt(lessons.substring(lessons.indexOf("-") + 1));
+
+            for (int i = low; i < high; i++) {
+                row[1] = String.valueOf(i);
+                dtos.addAll(legacyCreate(row));
+            }
+
+            dto.setLesson(high);
+        } else dto.setLesson(Integer.parseInt(lessons));
+        if (row[2].matches("(.*)[0-9](.*)")) dto.setSubject(row[2]);
+        if (row[3].matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")) dto.setSubstituteTeacher(row[3]);
+        if (row[4].matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")) dto.setTeacher(row[4]);
+        dto.setType(row[5]);
+        if (row[6].matches("(.*)[0-9](.*)")) dto.setSubstituteOf(row[6]);
+        if (!row[7].equals("---")) dto.setRoom(row[7]);
+        if (!row[8].matches("\\h")) dto.setText(row[8]);
+
+        dtos.add(dto);
+        return dtos;
+    }
+
+}
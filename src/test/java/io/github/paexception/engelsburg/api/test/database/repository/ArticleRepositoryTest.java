@@ -0,0 +1,98 @@
+package io.github.paexception.engelsburg.api.test.database.repository;
+
+import io.github.paexception.engelsburg.api.controller.shared.ArticleController;
+import io.github.paexception.engelsburg.api.database.model.ArticleModel;
+import io.github.paexception.engelsburg.api.database.projections.ArticleSummaryProjection;
+import io.github.paexception.engelsburg.api.database.repository.ArticleRepository;
+import io.github.paexception.engelsburg.api.endpoint.dto.ArticleSummaryDTO;
+import io.github.paexception.engelsburg.api.endpoint.dto.response.GetArticleSummariesResponseDTO;
+import io.github.paexception.engelsburg.api.spring.paging.Cursor;
+import io.github.paexception.engelsburg.api.spring.paging.Paging;
+import io.github.paexception.engelsburg.api.util.Result;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "io.github.paexception.engelsburg.api.test.database.repository.ArticleRepositoryTest$Statements"
+})
+public class ArticleRepositoryTest {
+
+    //Column of the content, but not of the content hash
+    private static final Pattern CONTENT = Pattern.compile("\\.content\\b");
+
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    public void saveArticles() {
+        for (int i = 1; i <= 3; i++) {
+            this.entityManager.persist(new ArticleModel(0, i, 1000L * i, "https://any.link/" + i, "Title " + i,
+                    "Content " + i, "hash" + i, null, null));
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Statements.SQL.clear();
+    }
+
+    @Test
+    public void summariesDontSelectContent() {
+        List<ArticleSummaryProjection> summaries = this.articleRepository
+                .findAllSummariesByDateLessThanEqualOrderByDateDesc(Long.MAX_VALUE, PageRequest.of(0, 10));
+        summaries.addAll(this.articleRepository.findAllSummariesBefore(Long.MAX_VALUE, 0, PageRequest.of(0, 10)));
+
+        assert summaries.size() == 6;
+        for (ArticleSummaryProjection summary : summaries) assert !(summary instanceof ArticleModel);
+        assert summaries.get(0).getArticleId() == 3 && summaries.get(0).getContentHash().equals("hash3");
+
+        assert !Statements.SQL.isEmpty();
+        for (String sql : Statements.SQL) assert !CONTENT.matcher(sql).find() : sql;
+    }
+
+    @Test
+    public void summariesByCursor() {
+        ArticleController controller = new ArticleController(this.articleRepository);
+
+        Result<GetArticleSummariesResponseDTO> result = controller.getArticleSummariesByCursor(
+                new Cursor(3000, 3).toToken(), null, new Paging(0, 10));
+        assert result.isResultPresent();
+
+        List<ArticleSummaryDTO> articles = result.getResult().getArticles();
+        assert articles.size() == 2;
+        assert articles.get(0).getArticleId() == 2 && articles.get(1).getArticleId() == 1;
+        assert Cursor.parse(result.getResult().getBefore()).equals(new Cursor(1000, 1));
+        assert Cursor.parse(result.getResult().getAfter()).equals(new Cursor(2000, 2));
+
+        for (String sql : Statements.SQL) assert !CONTENT.matcher(sql).find() : sql;
+    }
+
+    /**
+     * Records all executed statements.
+     */
+    public static class Statements implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+        private static final Queue<String> SQL = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+
+    }
+
+}
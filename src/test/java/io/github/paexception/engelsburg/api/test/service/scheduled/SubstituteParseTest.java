@@ -1,21 +1,45 @@
 package io.github.paexception.engelsburg.api.test.service.scheduled;
 
+import io.github.paexception.engelsburg.api.database.model.SubstituteModel;
 import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
+import io.github.paexception.engelsburg.api.service.FetchingClient;
 import io.github.paexception.engelsburg.api.service.scheduled.SubstituteUpdateService;
+import io.github.paexception.engelsburg.api.service.substitute.JsoupSubstitutePageParser;
+import io.github.paexception.engelsburg.api.service.substitute.StreamingSubstitutePageParser;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDay;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDayCollector;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteDiff;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteIndex;
+import io.github.paexception.engelsburg.api.service.substitute.SubstitutePageParser;
+import io.github.paexception.engelsburg.api.service.substitute.SubstituteRowTokenizer;
+import io.github.paexception.engelsburg.api.test.benchmark.SubstitutePages;
 
 import org.junit.jupiter.api.Test;
 import io.github.paexception.engelsburg.api.endpoint.dto.SubstituteDTO;
 import java.sql.Date;
 import java.util.Objects;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public class SubstituteParseTest {
 
     @Test
     public void testSubstituteParse() {
-        new SubstituteUpdateService(null, null, null).updateSubstitutes();
+        SubstituteUpdateService service = new SubstituteUpdateService(null, null, null);
+        FetchingClient client = new FetchingClient();
+        service.setFetchingClient(client);
+        try {
+            service.updateSubstitutes();
+        } finally {
+            service.shutdown();
+            client.shutdown();
+        }
     }
 
     @Test
@@ -188,4 +212,166 @@ public class SubstituteParseTest {
 
         assert !Objects.equals(dto11, dto12);
     }
+
+    @Test
+    public void rowTokenizerClassificationTest() {
+        String[] samples = {"", " ", "  ", "\t", "\u00A0", "\u2003", "\u3000", "---", "--", "----", "8e", "10c", "Q3",
+                "E1", "1 - 3", "5", "Veranst.", "GAR", "äö", "Ü", "é", "ß", "+", "Mo-21.2. / 4", "a\nb1", "1\r", "x\u2028",
+                "\u0085 7", "Aufg. vorhanden", "\u00A0\u00A0"};
+
+        for (String sample : samples) {
+            assert SubstituteRowTokenizer.hasDigit(sample) == sample.matches("(.*)[0-9](.*)") : sample;
+            assert SubstituteRowTokenizer.hasLetterOrDigit(sample) == sample.matches("(.*)[a-zA-ZäöüÄÖÜ0-9](.*)")
+                    : sample;
+            assert SubstituteRowTokenizer.isBlank(sample) == sample.matches("\\h") : sample;
+            assert SubstituteRowTokenizer.isNone(sample) == sample.equals("---") : sample;
+        }
+    }
+
+    @Test
+    public void rowTokenizerLessonRangeTest() {
+        Date date = new Date(169879761);
+        SubstituteRowTokenizer tokenizer = new SubstituteRowTokenizer();
+        List<SubstituteDTO> dtos = new ArrayList<>();
+
+        //Range results in one substitute per lesson
+        row(tokenizer, "8e", "3 - 5", "\u00A0", "GAR", "KLE", "Vertretung", "Mo-21.2. / 4", "---", " ");
+        assert !tokenizer.isContinuation();
+        assert tokenizer.tokenize(date, dtos) == 3;
+        for (int i = 0; i < 3; i++) {
+            assert dtos.get(i).getLesson() == 3 + i;
+            assert dtos.get(i).getClassName().equals("8e");
+            assert dtos.get(i).getSubject() == null;
+            assert dtos.get(i).getSubstituteTeacher().equals("GAR");
+            assert dtos.get(i).getSubstituteOf().equals("Mo-21.2. / 4");
+            assert dtos.get(i).getRoom() == null;
+            assert dtos.get(i).getText() == null;
+        }
+
+        //Descending range only results in the last lesson
+        dtos.clear();
+        row(tokenizer, "Q3", "6-4", "M1", "", "BSU", "Entfall", "", "A101", "Aufg. vorhanden");
+        assert tokenizer.tokenize(date, dtos) == 1;
+        assert dtos.get(0).getLesson() == 4;
+        assert dtos.get(0).getSubstituteTeacher() == null;
+        assert dtos.get(0).getText().equals("Aufg. vorhanden");
+
+        //Row without lesson extends the text of the previous substitute
+        row(tokenizer, "", "", "", "", "", "", "", "", "weiter im Raum");
+        assert tokenizer.isContinuation();
+        assert tokenizer.lastCell().equals("weiter im Raum");
+    }
+
+    @Test
+    public void pageParserEngineEquivalenceTest() throws Exception {
+        String edgeCases = "<HTML><HEAD><META http-equiv=Content-Type content='text/html; charset=iso-8859-1'>"
+                + "<script>if (a<b) document.write('<div id=\"vertretung\">')</script></HEAD><BODY>\n"
+                + "<DIV ID=vertretung><!-- <b>1.1. Nope</b> --><a name=1>&nbsp;</a><br><B>11.9.&nbsp;Montag</B>\n"
+                + "<p><table class=\"F\"><tr><td>Abwesende Lehrer</td><td>GAR,\n  KLE&amp;X</td></tr>"
+                + "<tr><td>Heute<br>7.&shy;Stunde &lt;Konferenz&gt; a<b</td></tr></table></p>\n"
+                + "<p><a name=2>&nbsp;</a><br><b>12.9. Dienstag</b></p><P><TABLE CLASS=\"Subst\"><TR class=list><th>Klasse</th>\n"
+                + "<TR class=\"list odd\"><TD><b>8e</b> <span>x</span><TD>1 - 3<TD>&nbsp;<TD> Müller <td>&nbsp;<td>Veranst."
+                + "<td>&nbsp;<td>---<td><p>Text</p>mehr\n<tr class=\"list even\"><td>&nbsp;</td><td>&nbsp;</td><td></td>"
+                + "<td></td><td></td><td></td><td></td><td></td><td>weiter &#246; &auml;</td></tr>\n"
+                + "</TABLE></P><p> </p></div><div><b>13.9. Nope</b></div></BODY></HTML>";
+        List<byte[]> pages = List.of(SubstitutePages.week(5, 40), ("<!DOCTYPE html>" + SubstitutePages.weekHtml(3, 20))
+                .getBytes(StandardCharsets.UTF_8), edgeCases.getBytes(StandardCharsets.ISO_8859_1));
+
+        for (byte[] page : pages) {
+            List<SubstituteDay> jsoup = parse(new JsoupSubstitutePageParser(), page);
+            List<SubstituteDay> streaming = parse(new StreamingSubstitutePageParser(), page);
+
+            assert !jsoup.isEmpty();
+            assert jsoup.size() == streaming.size();
+            for (int i = 0; i < jsoup.size(); i++) {
+                assert jsoup.get(i).getDate().equals(streaming.get(i).getDate());
+                assert Objects.equals(jsoup.get(i).getMessage(), streaming.get(i).getMessage());
+                assert jsoup.get(i).getSubstitutes().toString().equals(streaming.get(i).getSubstitutes().toString());
+            }
+        }
+
+        assert !new StreamingSubstitutePageParser().parse("<html><body></body></html>".getBytes(StandardCharsets.UTF_8),
+                null, "", new SubstituteDayCollector(2023));
+    }
+
+    @Test
+    public void substituteDiffTest() {
+        Date date = new Date(169879761);
+        SubstituteModel unchanged = new SubstituteModel(1, date, "8e", 1, "M", "GAR", "KLE", "Vertretung", null, "A101", null);
+        SubstituteModel moved = new SubstituteModel(2, date, "8e", 2, "M", "GAR", "KLE", "Vertretung", null, "A101", null);
+        SubstituteModel removed = new SubstituteModel(3, date, "5a", 3, null, null, "BSU", "Entfall", null, null, null);
+        List<SubstituteDTO> fetched = List.of(
+                unchanged.toResponseDTO(),
+                new SubstituteDTO(date, "8e", 2, "M", "GAR", "KLE", "Vertretung", null, "B202", null),
+                new SubstituteDTO(date, "Q2", 4, "D", "web", "MUE", "Entfall", null, null, null)
+        );
+
+        SubstituteDiff diff = SubstituteDiff.of(new ArrayList<>(List.of(unchanged, moved, removed)), fetched, dto ->
+                new SubstituteModel(-1, dto.getDate(), dto.getClassName(), dto.getLesson(), dto.getSubject(),
+                        dto.getSubstituteTeacher() != null ? dto.getSubstituteTeacher().toUpperCase() : null,
+                        dto.getTeacher(), dto.getType(), dto.getSubstituteOf(), dto.getRoom(), dto.getText()));
+
+        //Changed row is updated in place and keeps its id
+        assert diff.getUpdates().equals(List.of(moved));
+        assert moved.getRoom().equals("B202") && moved.getSubstituteId() == 2;
+        assert diff.getUpdated().equals(List.of(fetched.get(1)));
+
+        assert diff.getInserts().size() == 1 && diff.getInserts().get(0).getSubstituteTeacher().equals("WEB");
+        assert diff.getCreated().equals(List.of(fetched.get(2)));
+        assert diff.getDeletes().equals(List.of(removed));
+
+        //Nothing to write if nothing changed
+        List<SubstituteDTO> same = List.of(unchanged.toResponseDTO(), moved.toResponseDTO());
+        diff = SubstituteDiff.of(new ArrayList<>(List.of(unchanged, moved)), same, dto ->
+                new SubstituteModel(-1, dto.getDate(), dto.getClassName(), dto.getLesson(), dto.getSubject(),
+                        dto.getSubstituteTeacher(), dto.getTeacher(), dto.getType(), dto.getSubstituteOf(),
+                        dto.getRoom(), dto.getText()));
+        assert diff.isEmpty() && diff.getCreated().isEmpty() && diff.getUpdated().isEmpty();
+    }
+
+    @Test
+    public void substituteIndexTest() {
+        Date yesterday = Date.valueOf(LocalDate.now().minusDays(1)), today = Date.valueOf(LocalDate.now());
+        List<SubstituteModel> models = List.of(
+                new SubstituteModel(1, today, "5ab", 1, "M", "GAR", "KLE", "Vertretung", null, null, null),
+                new SubstituteModel(2, today, null, 2, null, null, null, "Veranst.", null, null, null),
+                new SubstituteModel(3, today, "E2Q2Q4", 3, "D", "BSU", "MUE", "Entfall", null, null, null),
+                new SubstituteModel(4, today, "10c", 4, "E", "WEB", null, "Vertretung", null, null, null),
+                new SubstituteModel(5, yesterday, "5a", 5, "M", null, "KLE", "Entfall", null, null, null),
+                new SubstituteModel(6, today, "05-10", 6, null, null, null, "Veranst.", null, null, null)
+        );
+        SubstituteIndex index = SubstituteIndex.of(models, List.of("5a", "5b", "10c", "Q2"));
+
+        //Past days are filtered when reading
+        assert index.find(Set.of(), Set.of(), LocalDate.now()).size() == 5;
+        assert index.find(Set.of(), Set.of(), LocalDate.now().minusDays(1)).size() == 6;
+
+        //Merged classes are split, substitutes without class or with classes splitting to none always match
+        assert SubstituteModel.splitClasses("05-10").isEmpty();
+        assert lessons(index.find(Set.of("5b"), Set.of(), LocalDate.now())).equals(List.of(1, 2, 6));
+        assert lessons(index.find(Set.of("Q2", "10c"), Set.of(), LocalDate.now())).equals(List.of(2, 3, 4, 6));
+
+        //Substitute teachers only match if the substitute has a teacher
+        assert lessons(index.find(Set.of(), Set.of("BSU"), LocalDate.now())).equals(List.of(2, 3, 6));
+        assert lessons(index.find(Set.of(), Set.of("WEB"), LocalDate.now())).equals(List.of(2, 6));
+    }
+
+    private static List<Integer> lessons(List<SubstituteDTO> substitutes) {
+        List<Integer> lessons = new ArrayList<>();
+        for (SubstituteDTO substitute : substitutes) lessons.add(substitute.getLesson());
+
+        return lessons;
+    }
+
+    private static List<SubstituteDay> parse(SubstitutePageParser engine, byte[] page) throws Exception {
+        SubstituteDayCollector collector = new SubstituteDayCollector(2023);
+        assert engine.parse(page, null, "https://engelsburg.smmp.de/", collector);
+
+        return collector.getDays();
+    }
+
+    private static void row(SubstituteRowTokenizer tokenizer, String... cells) {
+        tokenizer.reset();
+        for (String cell : cells) tokenizer.add(cell);
+    }
 }
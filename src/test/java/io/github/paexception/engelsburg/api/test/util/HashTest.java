@@ -0,0 +1,38 @@
+package io.github.paexception.engelsburg.api.test.util;
+
+import io.github.paexception.engelsburg.api.util.Hash;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class HashTest {
+
+    private static long fingerprint(String text) {
+        return Hash.fingerprint(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void fingerprintReferenceVectors() {
+        //XXH64 with seed 0, as given by the reference implementation
+        assert fingerprint("") == 0xEF46DB3751D8E999L;
+        assert fingerprint("a") == 0xD24EC4F1A98C6E5BL;
+        assert fingerprint("abc") == 0x44BC2CF5AD770999L;
+        assert fingerprint("xxhash") == 0x32DD38952C4BC720L;
+        //At least 32 bytes, so the stripes are consumed
+        assert fingerprint("Nobody inspects the spammish repetition") == 0xFBCEA83C8A378BF1L;
+    }
+
+    @Test
+    public void fingerprintIncremental() {
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+
+        Hash.Fingerprint fingerprint = new Hash.Fingerprint();
+        for (int i = 0; i < bytes.length; i += 7) fingerprint.update(bytes, i, Math.min(7, bytes.length - i));
+
+        assert fingerprint.getValue() == Hash.fingerprint(bytes);
+        assert Hash.fingerprint((Object) "Nobody inspects the spammish repetition")
+                == fingerprint("Nobody inspects the spammish repetition");
+    }
+
+}